@@ -1,8 +1,11 @@
+import org.openapitools.generator.gradle.plugin.tasks.GenerateTask
+
 group = "com.gradle.develocity.api"
 description = "Develocity API sample"
 
 plugins {
     id("org.openapi.generator") version "7.24.0"
+    id("me.champeau.jmh") version "0.7.3"
     kotlin("jvm") version embeddedKotlinVersion apply false
     `java-library`
     application
@@ -83,6 +86,35 @@ openApiGenerate {
     ))
 }
 
+// A non-blocking API client using java.net.http, which requires Java 11.
+// Only the API and its supporting classes are generated, the models are shared with the blocking client.
+val openApiGenerateAsync by tasks.registering(GenerateTask::class) {
+    generatorName.set("java")
+    inputSpec.set(project.layout.file(apiSpecificationFile))
+    outputDir.set(project.layout.buildDirectory.dir("generated/$name"))
+    ignoreFileOverride.set(project.layout.projectDirectory.file(".openapi-generator-async-ignore").asFile.absolutePath)
+    modelPackage.set(modelPackageName)
+    apiPackage.set("$basePackageName.async")
+    invokerPackage.set("$basePackageName.async.client")
+    cleanupOutput.set(true)
+    openapiNormalizer.set(mapOf("REF_AS_PARENT_IN_ALLOF" to "true"))
+    globalProperties.set(mapOf(
+        "apis" to "",
+        "supportingFiles" to "",
+        "apiTests" to "false",
+        "apiDocs" to "false"
+    ))
+    configOptions.set(mapOf(
+        "library" to "native",
+        "asyncNative" to "true",
+        "dateLibrary" to "java8",
+        "hideGenerationTimestamp" to "true",
+        "openApiNullable" to "false",
+        "useBeanValidation" to "false",
+        "sourceFolder" to ""
+    ))
+}
+
 tasks.test {
     useJUnitPlatform()
 
@@ -98,10 +130,76 @@ tasks.test {
     })
 }
 
+// The virtual-thread mode needs a Java 21 toolchain, so it is only built when Gradle runs on Java 21 or later,
+// or when requested with -PvirtualThreads=true. Without it, `--virtual-threads` reports that it is not available.
+val buildVirtualThreads = JavaVersion.current().isCompatibleWith(JavaVersion.VERSION_21) ||
+    providers.gradleProperty("virtualThreads").map { it.toBoolean() }.getOrElse(false)
+
 sourceSets {
     main {
         java {
             srcDir(tasks.openApiGenerate)
         }
     }
+    // `builds --async` loads these classes when running on Java 11 or later
+    create("async") {
+        java {
+            srcDir(openApiGenerateAsync)
+        }
+    }
+    // `--virtual-threads` loads these classes when running on Java 21 or later
+    if (buildVirtualThreads) {
+        create("java21")
+    }
+}
+
+configurations.named("asyncImplementation") {
+    extendsFrom(configurations.implementation.get())
+}
+
+dependencies {
+    "asyncImplementation"(sourceSets.main.get().output)
+}
+
+tasks.named<JavaCompile>("compileAsyncJava") {
+    options.release.set(11)
+}
+
+tasks.jar {
+    from(sourceSets["async"].output)
+}
+
+tasks.named<JavaExec>("run") {
+    classpath(sourceSets["async"].output)
+}
+
+if (buildVirtualThreads) {
+    configurations.named("java21Implementation") {
+        extendsFrom(configurations.implementation.get())
+    }
+
+    dependencies {
+        "java21Implementation"(sourceSets.main.get().output)
+    }
+
+    tasks.named<JavaCompile>("compileJava21Java") {
+        javaCompiler.set(javaToolchains.compilerFor {
+            languageVersion.set(JavaLanguageVersion.of(21))
+        })
+        options.release.set(21)
+    }
+
+    tasks.jar {
+        from(sourceSets["java21"].output)
+    }
+
+    tasks.named<JavaExec>("run") {
+        classpath(sourceSets["java21"].output)
+    }
+}
+
+// benchmarks live in src/jmh/java, run them with `./gradlew jmh`
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
 }
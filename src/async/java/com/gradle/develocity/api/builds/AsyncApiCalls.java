@@ -0,0 +1,41 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.async.client.ApiException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class AsyncApiCalls {
+
+    interface AsyncApiCall<T> {
+        CompletableFuture<T> execute() throws ApiException;
+    }
+
+    private AsyncApiCalls() {
+    }
+
+    // The generated methods throw when a request cannot be built, and otherwise fail the returned future
+    static <T> CompletableFuture<T> call(AsyncApiCall<T> call) {
+        try {
+            return call.execute();
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // The samples report errors of the blocking client, which carry the same status, headers and body
+    static com.gradle.develocity.api.client.ApiException toApiException(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof ApiException) {
+            ApiException apiException = (ApiException) cause;
+            return new com.gradle.develocity.api.client.ApiException(
+                apiException.getCode(),
+                apiException.getResponseHeaders() == null ? Collections.emptyMap() : apiException.getResponseHeaders().map(),
+                apiException.getResponseBody()
+            );
+        }
+        return new com.gradle.develocity.api.client.ApiException(cause);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.async.DevelocityApi;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.GradleAttributes;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.MavenAttributes;
+import com.gradle.develocity.api.model.MavenBuildCachePerformance;
+import com.gradle.develocity.api.shared.AsyncApiCallInterceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.gradle.develocity.api.builds.AsyncApiCalls.call;
+
+/**
+ * Reports the same build cache performance as {@link BuildCacheBuildProcessor}, chaining the requests for each build
+ * instead of blocking a thread on them.
+ */
+final class AsyncBuildCacheBuildProcessor implements AsyncBuildProcessor {
+
+    private final DevelocityApi api;
+    private final String projectName;
+    private final BuildCacheBuildProcessor reporter;
+    private final AsyncApiCallInterceptor interceptor;
+
+    AsyncBuildCacheBuildProcessor(DevelocityApi api, String projectName, BuildCacheBuildProcessor reporter, AsyncApiCallInterceptor interceptor) {
+        this.api = api;
+        this.interceptor = interceptor;
+        this.projectName = projectName;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public CompletableFuture<Void> process(Build build) {
+        CompletableFuture<Void> result;
+        switch (build.getBuildToolType()) {
+            case "gradle":
+                result = processGradleBuild(build);
+                break;
+            case "maven":
+                result = processMavenBuild(build);
+                break;
+            default:
+                System.err.println("Unsupported build tool type received - " + build.getBuildToolType());
+                return CompletableFuture.completedFuture(null);
+        }
+        return result.exceptionally(failure -> {
+            reporter.reportError(build, AsyncApiCalls.toApiException(failure));
+            return null;
+        });
+    }
+
+    private CompletableFuture<Void> processMavenBuild(Build build) {
+        return fetch(build, BuildModelName.MAVEN_ATTRIBUTES, MavenAttributes.class, () -> interceptor.intercept("getMavenAttributes", () -> call(() -> api.getMavenAttributes(build.getId(), new BuildModelQuery()))))
+            .thenCompose(attributes -> {
+                if (projectName != null && !projectName.equals(attributes.getTopLevelProjectName())) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return fetch(build, BuildModelName.MAVEN_BUILD_CACHE_PERFORMANCE, MavenBuildCachePerformance.class, () -> interceptor.intercept("getMavenBuildCachePerformance", () -> call(() -> api.getMavenBuildCachePerformance(build.getId(), new BuildModelQuery()))))
+                    .thenAccept(model -> reporter.reportBuild(
+                        build,
+                        BuildCacheBuildProcessor.computeCacheHitPercentage(model),
+                        BuildCacheBuildProcessor.computeAvoidanceSavingsRatioPercentage(model),
+                        attributes.getTopLevelProjectName(),
+                        attributes.getBuildDuration(),
+                        attributes.getEnvironment().getUsername()
+                    ));
+            });
+    }
+
+    private CompletableFuture<Void> processGradleBuild(Build build) {
+        return fetch(build, BuildModelName.GRADLE_ATTRIBUTES, GradleAttributes.class, () -> interceptor.intercept("getGradleAttributes", () -> call(() -> api.getGradleAttributes(build.getId(), new BuildModelQuery()))))
+            .thenCompose(attributes -> {
+                if (projectName != null && !projectName.equals(attributes.getRootProjectName())) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return fetch(build, BuildModelName.GRADLE_BUILD_CACHE_PERFORMANCE, GradleBuildCachePerformance.class, () -> interceptor.intercept("getGradleBuildCachePerformance", () -> call(() -> api.getGradleBuildCachePerformance(build.getId(), new BuildModelQuery()))))
+                    .thenAccept(model -> reporter.reportBuild(
+                        build,
+                        BuildCacheBuildProcessor.computeCacheHitPercentage(model),
+                        BuildCacheBuildProcessor.computeAvoidanceSavingsRatioPercentage(model),
+                        attributes.getRootProjectName(),
+                        attributes.getBuildDuration(),
+                        attributes.getEnvironment().getUsername()
+                    ));
+            });
+    }
+
+    // Models requested inline with the builds query are used when present, as with the blocking client
+    private static <T> CompletableFuture<T> fetch(Build build, BuildModelName modelName, Class<T> modelType, Supplier<CompletableFuture<T>> request) {
+        Object inlineModel = BuildModelFetcher.inlineModel(build, modelName);
+        return inlineModel != null ? CompletableFuture.completedFuture(modelType.cast(inlineModel)) : request.get();
+    }
+
+}
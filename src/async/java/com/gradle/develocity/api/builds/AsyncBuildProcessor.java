@@ -0,0 +1,14 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.model.Build;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Processes a build without blocking, completing once all requests made for the build have completed.
+ */
+interface AsyncBuildProcessor {
+
+    CompletableFuture<Void> process(Build build);
+
+}
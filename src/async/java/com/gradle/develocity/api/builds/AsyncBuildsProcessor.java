@@ -0,0 +1,95 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.async.DevelocityApi;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.model.BuildsQuery;
+import com.gradle.develocity.api.shared.AsyncApiCallInterceptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.gradle.develocity.api.builds.AsyncApiCalls.call;
+
+/**
+ * Processes builds like {@link BuildsProcessor}, without blocking any thread while requests are in flight.
+ * <p>
+ * All builds of a page are processed at once, however few threads the HTTP client uses.
+ * Their requests pass through an {@link AsyncApiCallInterceptor}, which limits how many of them are in flight and retries them.
+ */
+final class AsyncBuildsProcessor {
+
+    private final DevelocityApi api;
+    private final AsyncBuildProcessor buildProcessor;
+    private final boolean reverse;
+    private final int maxBuilds;
+    private final int maxWaitSecs;
+    private final String searchQuery;
+    private final List<BuildModelName> models;
+    private final AsyncApiCallInterceptor interceptor;
+
+    AsyncBuildsProcessor(DevelocityApi api, AsyncBuildProcessor buildProcessor, boolean reverse, int maxBuilds, int maxWaitSecs, String searchQuery, List<BuildModelName> models, AsyncApiCallInterceptor interceptor) {
+        this.api = api;
+        this.buildProcessor = buildProcessor;
+        this.reverse = reverse;
+        this.maxBuilds = maxBuilds;
+        this.maxWaitSecs = maxWaitSecs;
+        this.searchQuery = searchQuery;
+        this.models = models;
+        this.interceptor = interceptor;
+    }
+
+    /**
+     * Completes once the builds are processed when processing builds backward.
+     * When processing builds forward, new builds are waited for, so the result only ever completes exceptionally.
+     */
+    CompletableFuture<Void> process(Instant fromInstant) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        processPages(buildsQuery -> buildsQuery.fromInstant(fromInstant.toEpochMilli()), result);
+        return result;
+    }
+
+    // Each page is requested once the previous one completed, from the callback rather than a chain of futures,
+    // so that the chain does not grow with the number of pages processed.
+    private void processPages(Consumer<BuildsQuery> fromApplicator, CompletableFuture<Void> result) {
+        fetchPage(fromApplicator)
+            .thenCompose(builds -> processBuilds(builds).thenApply(__ -> builds))
+            .whenComplete((builds, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else if (reverse) {
+                    result.complete(null);
+                } else if (builds.isEmpty()) {
+                    processPages(fromApplicator, result);
+                } else {
+                    String lastBuildId = builds.get(builds.size() - 1).getId();
+                    processPages(buildsQuery -> buildsQuery.fromBuild(lastBuildId), result);
+                }
+            });
+    }
+
+    private CompletableFuture<List<Build>> fetchPage(Consumer<BuildsQuery> fromApplicator) {
+        BuildsQuery query = new BuildsQuery();
+        query.setReverse(reverse);
+        query.setMaxBuilds(maxBuilds);
+        query.setMaxWaitSecs(maxWaitSecs);
+        if (searchQuery != null) {
+            query.setQuery(searchQuery);
+        }
+        if (!models.isEmpty()) {
+            query.setModels(models);
+        }
+        fromApplicator.accept(query);
+
+        return interceptor.intercept("getBuilds", () -> call(() -> api.getBuilds(query)));
+    }
+
+    private CompletableFuture<Void> processBuilds(List<Build> builds) {
+        return CompletableFuture.allOf(builds.stream()
+            .map(buildProcessor::process)
+            .toArray(CompletableFuture[]::new));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.async.client.ApiClient;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.shared.AsyncApiCallInterceptor;
+import com.gradle.develocity.api.shared.GradleEnterpriseApiProvider;
+
+import java.net.http.HttpClient;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+final class NativeAsyncBuildsRunner implements AsyncBuildsRunner {
+
+    @Override
+    public void run(GradleEnterpriseApiProvider apiProvider, BuildCacheBuildProcessor reporter, String projectName, boolean reverse, int maxBuilds, int maxWaitSecs, String searchQuery, List<BuildModelName> models, int threads, Instant fromInstant) throws Exception {
+        // the HTTP client completes requests and runs the processing chained to them on these threads
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            ApiClient apiClient = new ApiClient();
+            apiClient.setHttpClientBuilder(HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(apiProvider.getConnectTimeout()));
+            apiClient.setReadTimeout(apiProvider.getSocketTimeout());
+            apiClient.updateBaseUri(apiProvider.getServerUrl());
+            String authorization = "Bearer " + apiProvider.getAccessKey();
+            apiClient.setRequestInterceptor(request -> request.header("Authorization", authorization));
+
+            com.gradle.develocity.api.async.DevelocityApi asyncApi = new com.gradle.develocity.api.async.DevelocityApi(apiClient);
+            // calls are limited, retried and measured the same way as without --async
+            AsyncApiCallInterceptor interceptor = AsyncApiCallInterceptor.create(apiProvider, AsyncApiCalls::toApiException);
+            // builds and errors are reported the same way as without --async
+            AsyncBuildProcessor buildProcessor = new AsyncBuildCacheBuildProcessor(asyncApi, projectName, reporter, interceptor);
+            AsyncBuildsProcessor buildsProcessor = new AsyncBuildsProcessor(asyncApi, buildProcessor, reverse, maxBuilds, maxWaitSecs, searchQuery, models, interceptor);
+
+            buildsProcessor.process(fromInstant).join();
+        } catch (CompletionException e) {
+            throw AsyncApiCalls.toApiException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.gradle.develocity.api.shared;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task on its own virtual thread, of which only a bounded number run at the same time.
+ * <p>
+ * Tasks wait for a permit on their virtual thread, so submitting a task never blocks the caller.
+ */
+final class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    BoundedVirtualThreadExecutor(int maxConcurrentTasks) {
+        this.permits = new Semaphore(maxConcurrentTasks);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        virtualThreads.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return virtualThreads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return virtualThreads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return virtualThreads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtualThreads.awaitTermination(timeout, unit);
+    }
+
+}
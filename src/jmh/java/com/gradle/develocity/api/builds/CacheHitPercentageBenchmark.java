@@ -0,0 +1,56 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CacheHitPercentageBenchmark {
+
+    @Param({"1000", "30000", "100000"})
+    int numTasks;
+
+    private GradleBuildCachePerformance model;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        AvoidanceOutcomeEnum[] avoidanceOutcomes = AvoidanceOutcomeEnum.values();
+        List<GradleBuildCachePerformanceTaskExecutionEntry> tasks = new ArrayList<>(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            tasks.add(new GradleBuildCachePerformanceTaskExecutionEntry()
+                .taskPath(":project" + (i % 500) + ":task" + i)
+                .avoidanceOutcome(avoidanceOutcomes[random.nextInt(avoidanceOutcomes.length)])
+                .duration((long) random.nextInt(10_000)));
+        }
+        model = new GradleBuildCachePerformance().taskExecution(tasks);
+    }
+
+    @Benchmark
+    public BigDecimal computeCacheHitPercentage() {
+        return BuildCacheBuildProcessor.computeCacheHitPercentage(model);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiClient;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.ApiProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ApiProblemParserBenchmark {
+
+    private static final String PROBLEM = "{"
+        + "\"type\":\"urn:gradle:enterprise:api:problems:build-deleted\","
+        + "\"title\":\"Build deleted\","
+        + "\"status\":404,"
+        + "\"detail\":\"The Build Scan with ID 'abcdefghijklm' was deleted.\""
+        + "}";
+
+    private ObjectMapper objectMapper;
+    private ApiException problemException;
+    private ApiException plainException;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ApiClient().getObjectMapper();
+        problemException = new ApiException(404, Collections.singletonMap("content-type", Collections.singletonList("application/problem+json")), PROBLEM);
+        plainException = new ApiException(502, Collections.singletonMap("content-type", Collections.singletonList("text/html")), "<html><body>Bad Gateway</body></html>");
+    }
+
+    @Benchmark
+    public Optional<ApiProblem> parseProblem() {
+        return ApiProblemParser.maybeParse(problemException, objectMapper);
+    }
+
+    @Benchmark
+    public Optional<ApiProblem> skipNonProblem() {
+        return ApiProblemParser.maybeParse(plainException, objectMapper);
+    }
+
+}
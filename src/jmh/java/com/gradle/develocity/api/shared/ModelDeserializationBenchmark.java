@@ -0,0 +1,85 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiClient;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceAvoidanceSavingsSummary;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum;
+import com.gradle.develocity.api.model.TestOrContainer;
+import com.gradle.develocity.api.model.TestOutcomeDistribution;
+import com.gradle.develocity.api.model.TestsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes the largest payloads of the samples, using the object mapper configured by the generated client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ModelDeserializationBenchmark {
+
+    @Param({"1000", "30000"})
+    int numEntries;
+
+    private ObjectMapper objectMapper;
+    private byte[] buildCachePerformancePayload;
+    private byte[] testContainersPayload;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ApiClient().getObjectMapper();
+        Random random = new Random(42);
+
+        AvoidanceOutcomeEnum[] avoidanceOutcomes = AvoidanceOutcomeEnum.values();
+        List<GradleBuildCachePerformanceTaskExecutionEntry> tasks = new ArrayList<>(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            tasks.add(new GradleBuildCachePerformanceTaskExecutionEntry()
+                .taskPath(":project" + (i % 500) + ":task" + i)
+                .avoidanceOutcome(avoidanceOutcomes[random.nextInt(avoidanceOutcomes.length)])
+                .duration((long) random.nextInt(10_000)));
+        }
+        buildCachePerformancePayload = objectMapper.writeValueAsBytes(new GradleBuildCachePerformance()
+            .taskExecution(tasks)
+            .avoidanceSavingsSummary(new GradleBuildCachePerformanceAvoidanceSavingsSummary().ratio(random.nextDouble())));
+
+        List<TestOrContainer> containers = new ArrayList<>(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            containers.add(new TestOrContainer()
+                .name("com.example.module" + (i % 100) + ".feature" + (i % 1000) + ".SomeTest" + i)
+                .outcomeDistribution(new TestOutcomeDistribution().failed(random.nextInt(10)).flaky(random.nextInt(10)).total(20)));
+        }
+        testContainersPayload = objectMapper.writeValueAsBytes(Collections.singletonMap("content", containers));
+    }
+
+    @Benchmark
+    public GradleBuildCachePerformance deserializeBuildCachePerformance() throws IOException {
+        return objectMapper.readValue(buildCachePerformancePayload, GradleBuildCachePerformance.class);
+    }
+
+    @Benchmark
+    public TestsResponse deserializeTestContainers() throws IOException {
+        return objectMapper.readValue(testContainersPayload, TestsResponse.class);
+    }
+
+}
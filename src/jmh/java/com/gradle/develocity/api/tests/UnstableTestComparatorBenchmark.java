@@ -0,0 +1,66 @@
+package com.gradle.develocity.api.tests;
+
+import com.gradle.develocity.api.model.TestOrContainer;
+import com.gradle.develocity.api.model.TestOutcomeDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class UnstableTestComparatorBenchmark {
+
+    @Param({"300", "10000", "200000"})
+    int numContainers;
+
+    private List<TestOrContainer> containers;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        containers = new ArrayList<>(numContainers);
+        for (int i = 0; i < numContainers; i++) {
+            int total = 1 + random.nextInt(1000);
+            int failed = random.nextInt(total + 1);
+            int flaky = random.nextInt(total - failed + 1);
+            containers.add(new TestOrContainer()
+                .name("com.example.module" + (i % 100) + ".feature" + (i % 1000) + ".SomeTest" + i)
+                .outcomeDistribution(new TestOutcomeDistribution().failed(failed).flaky(flaky).total(total)));
+        }
+    }
+
+    @Benchmark
+    public List<TestOrContainer> sortUnstableContainers() {
+        List<TestOrContainer> sorted = new ArrayList<>(containers);
+        sorted.sort(UnstableTestRanking.ORDER);
+        return sorted;
+    }
+
+    @Benchmark
+    public List<TestOrContainer> rankUnstableContainers() {
+        return UnstableTestRanking.top(containers, 0);
+    }
+
+    @Benchmark
+    public List<TestOrContainer> rankTopUnstableContainers() {
+        return UnstableTestRanking.top(containers, 10);
+    }
+
+}
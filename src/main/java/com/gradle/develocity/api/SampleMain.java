@@ -23,7 +23,9 @@ public final class SampleMain {
 
     public static void main(final String[] args) {
         //noinspection InstantiationOfUtilityClass
-        System.exit(new CommandLine(new SampleMain()).execute(args));
+        System.exit(new CommandLine(new SampleMain())
+            .setCaseInsensitiveEnumValuesAllowed(true)
+            .execute(args));
     }
 
 }
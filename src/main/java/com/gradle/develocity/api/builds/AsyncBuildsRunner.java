@@ -0,0 +1,29 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.shared.GradleEnterpriseApiProvider;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Processes builds with the non-blocking API client.
+ * <p>
+ * The implementation is compiled from {@code src/async/java} for Java 11 or later, as it uses {@code java.net.http},
+ * and is therefore loaded reflectively.
+ */
+interface AsyncBuildsRunner {
+
+    String IMPLEMENTATION_CLASS_NAME = "com.gradle.develocity.api.builds.NativeAsyncBuildsRunner";
+
+    void run(GradleEnterpriseApiProvider apiProvider, BuildCacheBuildProcessor reporter, String projectName, boolean reverse, int maxBuilds, int maxWaitSecs, String searchQuery, List<BuildModelName> models, int threads, Instant fromInstant) throws Exception;
+
+    static AsyncBuildsRunner load() {
+        try {
+            return (AsyncBuildsRunner) Class.forName(IMPLEMENTATION_CLASS_NAME).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Processing builds with the non-blocking API client requires Java 11 or later", e);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes build results in the given format through a single buffered writer.
+ * <p>
+ * Each result is rendered without holding the lock, and only appended to the buffer while holding it.
+ * The buffer is flushed when full, and at least once per flush interval, so that results are seen shortly after being processed.
+ */
+final class BufferedBuildResultSink implements BuildResultSink, Closeable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String CSV_HEADER = "buildId,buildScanUrl,buildToolType,projectName,availableAt,buildDurationMs,username,cacheHitPercentage,avoidanceSavingsRatioPercentage";
+
+    private final OutputFormat format;
+    private final Writer writer;
+    private final ScheduledExecutorService flusher;
+
+    BufferedBuildResultSink(OutputFormat format, Writer writer, Duration flushInterval) {
+        this.format = format;
+        this.writer = writer;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "build-result-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (format == OutputFormat.CSV) {
+            append(CSV_HEADER + LINE_SEPARATOR);
+        }
+        flusher.scheduleAtFixedRate(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void write(BuildResult result) {
+        StringBuilder record = new StringBuilder(256);
+        switch (format) {
+            case TEXT:
+                appendText(record, result);
+                break;
+            case NDJSON:
+                appendJson(record, result);
+                break;
+            case CSV:
+                appendCsv(record, result);
+                break;
+            default:
+                throw new IllegalArgumentException("Output format " + format + " is not supported");
+        }
+        append(record.toString());
+    }
+
+    synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    private synchronized void append(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendText(StringBuilder record, BuildResult result) {
+        record.append("Build Scan | ").append(result.getBuildScanUrl())
+            .append(" | Project: ").append(result.getProjectName())
+            .append(" | 🗓  ").append(result.getAvailableAt())
+            .append(" | ⏱  ").append(result.getBuildDuration()).append(" ms\t| 👤 ").append(result.getUsername()).append(LINE_SEPARATOR)
+            .append(" - \tCache hit percentage: ").append(result.getCacheHitPercentage()).append('%').append(LINE_SEPARATOR)
+            .append(" - \tAvoidance savings ratio: ").append(result.getAvoidanceSavingsRatioPercentage()).append('%').append(LINE_SEPARATOR)
+            .append(LINE_SEPARATOR);
+    }
+
+    private static void appendJson(StringBuilder record, BuildResult result) {
+        record.append("{\"buildId\":");
+        appendJsonString(record, result.getBuildId());
+        record.append(",\"buildScanUrl\":");
+        appendJsonString(record, String.valueOf(result.getBuildScanUrl()));
+        record.append(",\"buildToolType\":");
+        appendJsonString(record, result.getBuildToolType());
+        record.append(",\"projectName\":");
+        appendJsonString(record, result.getProjectName());
+        record.append(",\"availableAt\":");
+        appendJsonString(record, String.valueOf(result.getAvailableAt()));
+        record.append(",\"buildDurationMs\":").append(result.getBuildDuration());
+        record.append(",\"username\":");
+        appendJsonString(record, result.getUsername());
+        record.append(",\"cacheHitPercentage\":").append(toPlainString(result.getCacheHitPercentage()));
+        record.append(",\"avoidanceSavingsRatioPercentage\":").append(toPlainString(result.getAvoidanceSavingsRatioPercentage()));
+        record.append('}').append('\n');
+    }
+
+    private static void appendJsonString(StringBuilder record, String value) {
+        if (value == null) {
+            record.append("null");
+        } else {
+            record.append('"');
+            JsonStringEncoder.getInstance().quoteAsString(value, record);
+            record.append('"');
+        }
+    }
+
+    private static void appendCsv(StringBuilder record, BuildResult result) {
+        appendCsvField(record, result.getBuildId());
+        record.append(',');
+        appendCsvField(record, String.valueOf(result.getBuildScanUrl()));
+        record.append(',');
+        appendCsvField(record, result.getBuildToolType());
+        record.append(',');
+        appendCsvField(record, result.getProjectName());
+        record.append(',');
+        appendCsvField(record, String.valueOf(result.getAvailableAt()));
+        record.append(',');
+        appendCsvField(record, result.getBuildDuration() == null ? null : result.getBuildDuration().toString());
+        record.append(',');
+        appendCsvField(record, result.getUsername());
+        record.append(',');
+        appendCsvField(record, result.getCacheHitPercentage() == null ? null : toPlainString(result.getCacheHitPercentage()));
+        record.append(',');
+        appendCsvField(record, result.getAvoidanceSavingsRatioPercentage() == null ? null : toPlainString(result.getAvoidanceSavingsRatioPercentage()));
+        record.append(LINE_SEPARATOR);
+    }
+
+    // fields are only quoted when needed, with embedded quotes doubled
+    private static void appendCsvField(StringBuilder record, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            record.append(value);
+        } else {
+            record.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static String toPlainString(BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+
+}
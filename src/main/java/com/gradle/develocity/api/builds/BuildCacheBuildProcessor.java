@@ -3,67 +3,117 @@ package com.gradle.develocity.api.builds;
 import com.gradle.develocity.api.DevelocityApi;
 import com.gradle.develocity.api.client.ApiException;
 import com.gradle.develocity.api.model.Build;
-import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.BuildModelName;
 import com.gradle.develocity.api.model.GradleAttributes;
 import com.gradle.develocity.api.model.GradleBuildCachePerformance;
 import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry;
 import com.gradle.develocity.api.model.MavenAttributes;
 import com.gradle.develocity.api.model.MavenBuildCachePerformance;
 import com.gradle.develocity.api.model.MavenBuildCachePerformanceGoalExecutionEntry;
+import com.gradle.develocity.api.shared.ApiProblemParser;
+import com.gradle.develocity.api.shared.Metrics;
+import com.gradle.develocity.api.shared.ProcessingStage;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URI;
 import java.time.Instant;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 final class BuildCacheBuildProcessor implements BuildProcessor {
 
-    private static final Set<GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum> GRADLE_CACHE_HIT_TYPES = new HashSet<>();
-    private static final Set<MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum> MAVEN_CACHE_HIT_TYPES = new HashSet<>();
-
-    static {
-        GRADLE_CACHE_HIT_TYPES.add(GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE);
-        GRADLE_CACHE_HIT_TYPES.add(GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE);
-        MAVEN_CACHE_HIT_TYPES.add(MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE);
-        MAVEN_CACHE_HIT_TYPES.add(MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE);
-    }
+    // The models this processor reads, which can be requested inline with the builds query
+    static final List<BuildModelName> MODELS = Arrays.asList(
+        BuildModelName.GRADLE_ATTRIBUTES,
+        BuildModelName.GRADLE_BUILD_CACHE_PERFORMANCE,
+        BuildModelName.MAVEN_ATTRIBUTES,
+        BuildModelName.MAVEN_BUILD_CACHE_PERFORMANCE
+    );
+    // The models this processor reads when build cache performance is streamed
+    static final List<BuildModelName> ATTRIBUTES_MODELS = Arrays.asList(
+        BuildModelName.GRADLE_ATTRIBUTES,
+        BuildModelName.MAVEN_ATTRIBUTES
+    );
+
+    private static final Set<GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum> GRADLE_CACHE_HIT_TYPES = EnumSet.of(
+        GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE,
+        GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE
+    );
+    private static final Set<MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum> MAVEN_CACHE_HIT_TYPES = EnumSet.of(
+        MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE,
+        MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE
+    );
+    private static final Set<String> GRADLE_CACHE_HIT_VALUES = GRADLE_CACHE_HIT_TYPES.stream()
+        .map(GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum::getValue)
+        .collect(Collectors.toSet());
+    private static final Set<String> MAVEN_CACHE_HIT_VALUES = MAVEN_CACHE_HIT_TYPES.stream()
+        .map(MavenBuildCachePerformanceGoalExecutionEntry.AvoidanceOutcomeEnum::getValue)
+        .collect(Collectors.toSet());
 
     private final DevelocityApi api;
     private final String projectName;
+    private final StreamingBuildCachePerformanceReader streamingReader;
+    private final Metrics metrics;
+    private final BuildResultSink resultSink;
 
-    BuildCacheBuildProcessor(DevelocityApi api, String projectName) {
+    BuildCacheBuildProcessor(DevelocityApi api, String projectName, StreamingBuildCachePerformanceReader streamingReader, Metrics metrics, BuildResultSink resultSink) {
         this.api = api;
         this.projectName = projectName;
+        this.streamingReader = streamingReader;
+        this.metrics = metrics;
+        this.resultSink = resultSink;
     }
 
     @Override
-    public void process(Build build) {
+    public void process(BuildModelContext context) {
+        Build build = context.getBuild();
         try {
             switch (build.getBuildToolType()) {
                 case "gradle":
-                    processGradleBuild(build);
+                    processGradleBuild(context);
                     break;
                 case "maven":
-                    processMavenBuild(build);
+                    processMavenBuild(context);
                     break;
                 default:
-                    System.out.println("Unsupported build tool type received - " + build.getBuildToolType());
+                    System.err.println("Unsupported build tool type received - " + build.getBuildToolType());
             }
         } catch (ApiException e) {
             reportError(build, e);
         }
     }
 
-    private void processMavenBuild(Build build) throws ApiException {
-        MavenAttributes attributes = api.getMavenAttributes(build.getId(), new BuildModelQuery());
+    private void processMavenBuild(BuildModelContext context) throws ApiException {
+        MavenAttributes attributes = context.getMavenAttributes();
         if (projectName == null || projectName.equals(attributes.getTopLevelProjectName())) {
-            MavenBuildCachePerformance model = api.getMavenBuildCachePerformance(build.getId(), new BuildModelQuery());
+            BigDecimal cacheHitPercentage;
+            BigDecimal avoidanceSavingsRatioPercentage;
+            if (streamingReader != null) {
+                // the model is summarized while it is read, so fetching and computing are a single stage
+                ProcessingStage stage = ProcessingStage.start(ProcessingStage.MODEL_FETCH, context.getBuild().getId(), "maven-build-cache-performance (streamed)");
+                BuildCachePerformanceSummary summary;
+                try {
+                    summary = streamingReader.readMaven(context.getBuild().getId(), MAVEN_CACHE_HIT_VALUES);
+                } finally {
+                    stage.commit();
+                }
+                cacheHitPercentage = toPercentage(summary.getNumExecutions(), summary.getNumCacheHits());
+                avoidanceSavingsRatioPercentage = toPercentage(summary.getAvoidanceSavingsRatio());
+            } else {
+                MavenBuildCachePerformance model = context.getMavenBuildCachePerformance();
+                ProcessingStage stage = ProcessingStage.start(ProcessingStage.COMPUTE, context.getBuild().getId());
+                cacheHitPercentage = computeCacheHitPercentage(model);
+                avoidanceSavingsRatioPercentage = computeAvoidanceSavingsRatioPercentage(model);
+                stage.commit();
+            }
             reportBuild(
-                build,
-                computeCacheHitPercentage(model),
-                computeAvoidanceSavingsRatioPercentage(model),
+                context.getBuild(),
+                cacheHitPercentage,
+                avoidanceSavingsRatioPercentage,
                 attributes.getTopLevelProjectName(),
                 attributes.getBuildDuration(),
                 attributes.getEnvironment().getUsername()
@@ -71,14 +121,33 @@ final class BuildCacheBuildProcessor implements BuildProcessor {
         }
     }
 
-    private void processGradleBuild(Build build) throws ApiException {
-        GradleAttributes attributes = api.getGradleAttributes(build.getId(), new BuildModelQuery());
+    private void processGradleBuild(BuildModelContext context) throws ApiException {
+        GradleAttributes attributes = context.getGradleAttributes();
         if (projectName == null || projectName.equals(attributes.getRootProjectName())) {
-            GradleBuildCachePerformance model = api.getGradleBuildCachePerformance(build.getId(), new BuildModelQuery());
+            BigDecimal cacheHitPercentage;
+            BigDecimal avoidanceSavingsRatioPercentage;
+            if (streamingReader != null) {
+                // the model is summarized while it is read, so fetching and computing are a single stage
+                ProcessingStage stage = ProcessingStage.start(ProcessingStage.MODEL_FETCH, context.getBuild().getId(), "gradle-build-cache-performance (streamed)");
+                BuildCachePerformanceSummary summary;
+                try {
+                    summary = streamingReader.readGradle(context.getBuild().getId(), GRADLE_CACHE_HIT_VALUES);
+                } finally {
+                    stage.commit();
+                }
+                cacheHitPercentage = toPercentage(summary.getNumExecutions(), summary.getNumCacheHits());
+                avoidanceSavingsRatioPercentage = toPercentage(summary.getAvoidanceSavingsRatio());
+            } else {
+                GradleBuildCachePerformance model = context.getGradleBuildCachePerformance();
+                ProcessingStage stage = ProcessingStage.start(ProcessingStage.COMPUTE, context.getBuild().getId());
+                cacheHitPercentage = computeCacheHitPercentage(model);
+                avoidanceSavingsRatioPercentage = computeAvoidanceSavingsRatioPercentage(model);
+                stage.commit();
+            }
             reportBuild(
-                build,
-                computeCacheHitPercentage(model),
-                computeAvoidanceSavingsRatioPercentage(model),
+                context.getBuild(),
+                cacheHitPercentage,
+                avoidanceSavingsRatioPercentage,
                 attributes.getRootProjectName(),
                 attributes.getBuildDuration(),
                 attributes.getEnvironment().getUsername()
@@ -86,19 +155,25 @@ final class BuildCacheBuildProcessor implements BuildProcessor {
         }
     }
 
-    private void reportBuild(Build build, BigDecimal cacheHitPercentage, BigDecimal avoidanceSavingsRatioPercentage, String rootProjectName, Long buildDuration, String username) {
-        System.out.printf("Build Scan | %s | Project: %s | 🗓  %s | ⏱  %s ms\t| 👤 %s%n - \tCache hit percentage: %s%%%n - \tAvoidance savings ratio: %s%%%n%n",
+    void reportBuild(Build build, BigDecimal cacheHitPercentage, BigDecimal avoidanceSavingsRatioPercentage, String rootProjectName, Long buildDuration, String username) {
+        metrics.counter("develocity_build_cache_builds_reported_total", "Builds whose build cache performance was reported", "build_tool", build.getBuildToolType()).increment();
+        ProcessingStage stage = ProcessingStage.start(ProcessingStage.REPORT, build.getId());
+        resultSink.write(new BuildResult(
+            build.getId(),
             buildScanUrl(build),
+            build.getBuildToolType(),
             rootProjectName,
-            Instant.ofEpochMilli(build.getAvailableAt()).toString(),
+            Instant.ofEpochMilli(build.getAvailableAt()),
             buildDuration,
             username,
             cacheHitPercentage,
             avoidanceSavingsRatioPercentage
-        );
+        ));
+        stage.commit();
     }
 
-    private void reportError(Build build, ApiException e) {
+    void reportError(Build build, ApiException e) {
+        metrics.counter("develocity_build_cache_builds_failed_total", "Builds whose build cache performance could not be reported", "build_tool", build.getBuildToolType()).increment();
         System.err.printf("API Error %s for Build Scan ID %s%n%s%n", e.getCode(), build.getId(), e.getResponseBody());
         ApiProblemParser.maybeParse(e, api.getApiClient().getObjectMapper())
             .ifPresent(apiProblem -> {
@@ -114,34 +189,42 @@ final class BuildCacheBuildProcessor implements BuildProcessor {
         return URI.create(api.getApiClient().getBasePath() + "/s/" + build.getId());
     }
 
-    private static BigDecimal computeAvoidanceSavingsRatioPercentage(GradleBuildCachePerformance gradleBuildCachePerformanceModel) {
+    static BigDecimal computeAvoidanceSavingsRatioPercentage(GradleBuildCachePerformance gradleBuildCachePerformanceModel) {
         return toPercentage(gradleBuildCachePerformanceModel.getAvoidanceSavingsSummary().getRatio());
     }
 
-    private static BigDecimal computeAvoidanceSavingsRatioPercentage(MavenBuildCachePerformance mavenBuildCachePerformanceModel) {
+    static BigDecimal computeAvoidanceSavingsRatioPercentage(MavenBuildCachePerformance mavenBuildCachePerformanceModel) {
         return toPercentage(mavenBuildCachePerformanceModel.getAvoidanceSavingsSummary().getRatio());
     }
 
-    private static BigDecimal computeCacheHitPercentage(GradleBuildCachePerformance model) {
-        int numTasks = model.getTaskExecution().size();
-        long numAvoidedTasks = model.getTaskExecution().stream()
-            .filter(task -> GRADLE_CACHE_HIT_TYPES.contains(task.getAvoidanceOutcome()))
-            .count();
+    // Called for every build, with up to tens of thousands of tasks, so counting avoids any per-task allocation
+    static BigDecimal computeCacheHitPercentage(GradleBuildCachePerformance model) {
+        List<GradleBuildCachePerformanceTaskExecutionEntry> tasks = model.getTaskExecution();
+        int numAvoidedTasks = 0;
+        for (GradleBuildCachePerformanceTaskExecutionEntry task : tasks) {
+            if (GRADLE_CACHE_HIT_TYPES.contains(task.getAvoidanceOutcome())) {
+                numAvoidedTasks++;
+            }
+        }
 
-        return toPercentage(numTasks, numAvoidedTasks);
+        return toPercentage(tasks.size(), numAvoidedTasks);
     }
 
-    private static BigDecimal computeCacheHitPercentage(MavenBuildCachePerformance model) {
-        int numGoals = model.getGoalExecution().size();
-        long numAvoidedGoals = model.getGoalExecution().stream()
-            .filter(goal -> MAVEN_CACHE_HIT_TYPES.contains(goal.getAvoidanceOutcome()))
-            .count();
+    static BigDecimal computeCacheHitPercentage(MavenBuildCachePerformance model) {
+        List<MavenBuildCachePerformanceGoalExecutionEntry> goals = model.getGoalExecution();
+        int numAvoidedGoals = 0;
+        for (MavenBuildCachePerformanceGoalExecutionEntry goal : goals) {
+            if (MAVEN_CACHE_HIT_TYPES.contains(goal.getAvoidanceOutcome())) {
+                numAvoidedGoals++;
+            }
+        }
 
-        return toPercentage(numGoals, numAvoidedGoals);
+        return toPercentage(goals.size(), numAvoidedGoals);
     }
 
+    // a build without an avoidance savings ratio is reported without its percentage
     private static BigDecimal toPercentage(Double ratio) {
-        return toPercentage(BigDecimal.valueOf(ratio));
+        return ratio == null ? null : toPercentage(BigDecimal.valueOf(ratio));
     }
 
     private static BigDecimal toPercentage(BigDecimal ratio) {
@@ -152,7 +235,9 @@ final class BuildCacheBuildProcessor implements BuildProcessor {
         if (total == 0) {
             return BigDecimal.ZERO;
         } else {
-            return toPercentage(BigDecimal.valueOf(portion).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP));
+            // the ratio rounded half up to two decimal places, as a whole percentage
+            long percentage = (portion * 200 + total) / (total * 2);
+            return BigDecimal.valueOf(percentage).setScale(2, RoundingMode.UNNECESSARY);
         }
     }
 
@@ -0,0 +1,33 @@
+package com.gradle.develocity.api.builds;
+
+/**
+ * The figures of a build cache performance model needed to report on a build,
+ * without the individual task or goal executions.
+ */
+final class BuildCachePerformanceSummary {
+
+    private final int numExecutions;
+    private final int numCacheHits;
+    private final Double avoidanceSavingsRatio;
+
+    BuildCachePerformanceSummary(int numExecutions, int numCacheHits, Double avoidanceSavingsRatio) {
+        this.numExecutions = numExecutions;
+        this.numCacheHits = numCacheHits;
+        this.avoidanceSavingsRatio = avoidanceSavingsRatio;
+    }
+
+    public int getNumExecutions() {
+        return numExecutions;
+    }
+
+    public int getNumCacheHits() {
+        return numCacheHits;
+    }
+
+    /**
+     * The avoidance savings ratio, or {@code null} when the model has none, like the generated model.
+     */
+    public Double getAvoidanceSavingsRatio() {
+        return avoidanceSavingsRatio;
+    }
+}
@@ -0,0 +1,162 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A persistent cache of build models, keyed by build ID and model type.
+ * <p>
+ * Build models do not change once a build is available, so cached entries never need to be invalidated.
+ * Entries are stored as gzip compressed JSON files. Once the cache exceeds its maximum size,
+ * the entries used least recently in this run, or written least recently before it, are deleted.
+ * <p>
+ * The cache is only an optimisation, so failing to read or write an entry is reported and otherwise ignored:
+ * an entry that cannot be read is deleted and treated as missing, and the model is fetched again.
+ */
+final class BuildModelCache {
+
+    private static final String ENTRY_SUFFIX = ".json.gz";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper;
+
+    // entry files and their sizes, in least recently used order
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    BuildModelCache(Path directory, long maxBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.objectMapper = objectMapper;
+        loadEntries();
+    }
+
+    <T> T get(String buildId, String modelType, Class<T> type) {
+        Path entry = entryFile(buildId, modelType);
+        synchronized (this) {
+            if (entries.get(entry) == null) {
+                return null;
+            }
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry))) {
+            return objectMapper.readValue(in, type);
+        } catch (NoSuchFileException e) {
+            // evicted concurrently
+            return null;
+        } catch (IOException e) {
+            System.err.printf("Could not read cached model %s, fetching it again: %s%n", entry, e);
+            remove(entry);
+            return null;
+        }
+    }
+
+    void put(String buildId, String modelType, Object model) {
+        Path entry = entryFile(buildId, modelType);
+        long size;
+        try {
+            Files.createDirectories(entry.getParent());
+            Path tempFile = Files.createTempFile(entry.getParent(), buildId, ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                    objectMapper.writeValue(out, model);
+                }
+                size = Files.size(tempFile);
+                Files.move(tempFile, entry, REPLACE_EXISTING, ATOMIC_MOVE);
+            } finally {
+                // only left behind when the entry could not be written
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            System.err.printf("Could not cache model %s: %s%n", entry, e);
+            return;
+        }
+        synchronized (this) {
+            Long previousSize = entries.put(entry, size);
+            totalBytes += size - (previousSize == null ? 0 : previousSize);
+            evictIfNeeded();
+        }
+    }
+
+    private void remove(Path entry) {
+        synchronized (this) {
+            Long size = entries.remove(entry);
+            totalBytes -= size == null ? 0 : size;
+        }
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            System.err.printf("Could not delete cached model %s: %s%n", entry, e);
+        }
+    }
+
+    private Path entryFile(String buildId, String modelType) {
+        return directory.resolve(modelType).resolve(buildId + ENTRY_SUFFIX);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Path, Long>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Map.Entry<Path, Long> entry = leastRecentlyUsed.next();
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException e) {
+                // the entry is no longer accounted for, so that eviction does not get stuck on it
+                System.err.printf("Could not delete cached model %s: %s%n", entry.getKey(), e);
+            }
+            totalBytes -= entry.getValue();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private void loadEntries() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                .sorted(Comparator.comparing(BuildModelCache::lastModifiedTime))
+                .forEach(file -> {
+                    long size = size(file);
+                    entries.put(file, size);
+                    totalBytes += size;
+                });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
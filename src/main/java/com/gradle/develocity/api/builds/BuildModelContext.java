@@ -0,0 +1,67 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.model.GradleAttributes;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.MavenAttributes;
+import com.gradle.develocity.api.model.MavenBuildCachePerformance;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A build along with its models, which are fetched lazily.
+ * <p>
+ * Each model is fetched at most once, no matter how many build processors read it.
+ * A failure to fetch a model is remembered as well, and reported to every processor that reads the model.
+ */
+final class BuildModelContext {
+
+    private final Build build;
+    private final BuildModelFetcher modelFetcher;
+    private final Map<BuildModelName, Object> models = new EnumMap<>(BuildModelName.class);
+
+    BuildModelContext(Build build, BuildModelFetcher modelFetcher) {
+        this.build = build;
+        this.modelFetcher = modelFetcher;
+    }
+
+    Build getBuild() {
+        return build;
+    }
+
+    GradleAttributes getGradleAttributes() throws ApiException {
+        return get(BuildModelName.GRADLE_ATTRIBUTES, GradleAttributes.class);
+    }
+
+    GradleBuildCachePerformance getGradleBuildCachePerformance() throws ApiException {
+        return get(BuildModelName.GRADLE_BUILD_CACHE_PERFORMANCE, GradleBuildCachePerformance.class);
+    }
+
+    MavenAttributes getMavenAttributes() throws ApiException {
+        return get(BuildModelName.MAVEN_ATTRIBUTES, MavenAttributes.class);
+    }
+
+    MavenBuildCachePerformance getMavenBuildCachePerformance() throws ApiException {
+        return get(BuildModelName.MAVEN_BUILD_CACHE_PERFORMANCE, MavenBuildCachePerformance.class);
+    }
+
+    private synchronized <T> T get(BuildModelName modelName, Class<T> modelType) throws ApiException {
+        Object model = models.get(modelName);
+        if (model == null) {
+            try {
+                model = modelFetcher.fetch(build, modelName, modelType);
+            } catch (ApiException e) {
+                model = e;
+            }
+            models.put(modelName, model);
+        }
+        if (model instanceof ApiException) {
+            throw (ApiException) model;
+        }
+        return modelType.cast(model);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.DevelocityApi;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.shared.ProcessingStage;
+
+import java.util.Optional;
+
+/**
+ * Obtains the models of a build.
+ * <p>
+ * Models requested inline with the builds query are used when present.
+ * Otherwise, the model is read from the model cache, and only fetched individually if it was never seen before.
+ */
+final class BuildModelFetcher {
+
+    private final DevelocityApi api;
+    private final BuildModelCache modelCache;
+
+    BuildModelFetcher(DevelocityApi api, BuildModelCache modelCache) {
+        this.api = api;
+        this.modelCache = modelCache;
+    }
+
+    <T> T fetch(Build build, BuildModelName modelName, Class<T> modelType) throws ApiException {
+        ProcessingStage stage = ProcessingStage.start(ProcessingStage.MODEL_FETCH, build.getId(), modelName.getValue());
+        try {
+            return fetchUninstrumented(build, modelName, modelType);
+        } finally {
+            stage.commit();
+        }
+    }
+
+    private <T> T fetchUninstrumented(Build build, BuildModelName modelName, Class<T> modelType) throws ApiException {
+        Object inlineModel = inlineModel(build, modelName);
+        if (inlineModel != null) {
+            if (modelCache != null) {
+                modelCache.put(build.getId(), modelName.getValue(), inlineModel);
+            }
+            return modelType.cast(inlineModel);
+        }
+
+        T cachedModel = modelCache == null ? null : modelCache.get(build.getId(), modelName.getValue(), modelType);
+        if (cachedModel != null) {
+            return cachedModel;
+        }
+
+        T model = modelType.cast(request(build.getId(), modelName));
+        if (modelCache != null) {
+            modelCache.put(build.getId(), modelName.getValue(), model);
+        }
+        return model;
+    }
+
+    // A model is absent if it was not requested inline, or could not be produced by the server.
+    static Object inlineModel(Build build, BuildModelName modelName) {
+        switch (modelName) {
+            case GRADLE_ATTRIBUTES:
+                return Optional.ofNullable(build.getModels()).map(models -> models.getGradleAttributes()).map(model -> model.getModel()).orElse(null);
+            case GRADLE_BUILD_CACHE_PERFORMANCE:
+                return Optional.ofNullable(build.getModels()).map(models -> models.getGradleBuildCachePerformance()).map(model -> model.getModel()).orElse(null);
+            case MAVEN_ATTRIBUTES:
+                return Optional.ofNullable(build.getModels()).map(models -> models.getMavenAttributes()).map(model -> model.getModel()).orElse(null);
+            case MAVEN_BUILD_CACHE_PERFORMANCE:
+                return Optional.ofNullable(build.getModels()).map(models -> models.getMavenBuildCachePerformance()).map(model -> model.getModel()).orElse(null);
+            default:
+                throw new IllegalArgumentException("Build model " + modelName + " is not supported");
+        }
+    }
+
+    private Object request(String buildId, BuildModelName modelName) throws ApiException {
+        switch (modelName) {
+            case GRADLE_ATTRIBUTES:
+                return api.getGradleAttributes(buildId, new BuildModelQuery());
+            case GRADLE_BUILD_CACHE_PERFORMANCE:
+                return api.getGradleBuildCachePerformance(buildId, new BuildModelQuery());
+            case MAVEN_ATTRIBUTES:
+                return api.getMavenAttributes(buildId, new BuildModelQuery());
+            case MAVEN_BUILD_CACHE_PERFORMANCE:
+                return api.getMavenBuildCachePerformance(buildId, new BuildModelQuery());
+            default:
+                throw new IllegalArgumentException("Build model " + modelName + " is not supported");
+        }
+    }
+
+}
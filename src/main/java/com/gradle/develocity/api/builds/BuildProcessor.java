@@ -1,9 +1,7 @@
 package com.gradle.develocity.api.builds;
 
-import com.gradle.develocity.api.model.Build;
-
 interface BuildProcessor {
 
-    void process(Build build);
+    void process(BuildModelContext context);
 
 }
@@ -0,0 +1,70 @@
+package com.gradle.develocity.api.builds;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Instant;
+
+/**
+ * The build cache performance reported for a single build.
+ */
+final class BuildResult {
+
+    private final String buildId;
+    private final URI buildScanUrl;
+    private final String buildToolType;
+    private final String projectName;
+    private final Instant availableAt;
+    private final Long buildDuration;
+    private final String username;
+    private final BigDecimal cacheHitPercentage;
+    private final BigDecimal avoidanceSavingsRatioPercentage;
+
+    BuildResult(String buildId, URI buildScanUrl, String buildToolType, String projectName, Instant availableAt, Long buildDuration, String username, BigDecimal cacheHitPercentage, BigDecimal avoidanceSavingsRatioPercentage) {
+        this.buildId = buildId;
+        this.buildScanUrl = buildScanUrl;
+        this.buildToolType = buildToolType;
+        this.projectName = projectName;
+        this.availableAt = availableAt;
+        this.buildDuration = buildDuration;
+        this.username = username;
+        this.cacheHitPercentage = cacheHitPercentage;
+        this.avoidanceSavingsRatioPercentage = avoidanceSavingsRatioPercentage;
+    }
+
+    String getBuildId() {
+        return buildId;
+    }
+
+    URI getBuildScanUrl() {
+        return buildScanUrl;
+    }
+
+    String getBuildToolType() {
+        return buildToolType;
+    }
+
+    String getProjectName() {
+        return projectName;
+    }
+
+    Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    Long getBuildDuration() {
+        return buildDuration;
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    BigDecimal getCacheHitPercentage() {
+        return cacheHitPercentage;
+    }
+
+    BigDecimal getAvoidanceSavingsRatioPercentage() {
+        return avoidanceSavingsRatioPercentage;
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.gradle.develocity.api.builds;
+
+/**
+ * Receives the result of each processed build, possibly from several workers at the same time.
+ */
+interface BuildResultSink {
+
+    void write(BuildResult result);
+
+}
@@ -1,14 +1,32 @@
 package com.gradle.develocity.api.builds;
 
+import com.gradle.develocity.api.shared.BuildsQueryUtils;
 import com.gradle.develocity.api.shared.GradleEnterpriseApiProvider;
+import com.gradle.develocity.api.shared.WorkerExecutors;
 import com.gradle.develocity.api.DevelocityApi;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 @Command(
     name = "builds",
@@ -24,6 +42,13 @@ import java.util.concurrent.Callable;
 )
 public final class BuildsApiSample implements Callable<Integer> {
 
+    private static final Duration CHECKPOINT_FLUSH_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration OUTPUT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    @Spec
+    CommandSpec spec;
+
     @Mixin
     GradleEnterpriseApiProvider apiProvider;
 
@@ -59,18 +84,268 @@ public final class BuildsApiSample implements Callable<Integer> {
     )
     int maxWaitSecs;
 
+    @Option(
+        names = "--concurrency",
+        description = "The maximum number of builds to fetch and process in parallel (default: ${DEFAULT-VALUE})",
+        defaultValue = "1",
+        order = 6
+    )
+    int concurrency;
+
+    @Option(
+        names = "--inline-models",
+        description = "A boolean indicating whether the models needed for each build are requested inline with the builds query, instead of being fetched with separate requests per build (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 7
+    )
+    boolean inlineModels;
+
+    @Option(
+        names = "--checkpoint-file",
+        description = "The path to the file in which the ID of the last processed build is stored, when processing builds forward",
+        defaultValue = Option.NULL_VALUE,
+        order = 8
+    )
+    Path checkpointFile;
+
+    @Option(
+        names = "--resume",
+        description = "A boolean indicating whether processing continues after the build stored in --checkpoint-file, if any (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 9
+    )
+    boolean resume;
+
+    @Option(
+        names = "--prefetch-pages",
+        description = "The maximum number of pages of builds fetched ahead while the current page is processed, when processing builds forward. A value of 0 disables prefetching (default: ${DEFAULT-VALUE})",
+        defaultValue = "0",
+        order = 10
+    )
+    int prefetchPages;
+
+    @Option(
+        names = "--from",
+        description = "The ISO-8601 instant from which to process builds that are already available, e.g. 2024-01-01T00:00:00Z. Processing stops once --to is reached",
+        defaultValue = Option.NULL_VALUE,
+        order = 11
+    )
+    Instant from;
+
+    @Option(
+        names = "--to",
+        description = "The ISO-8601 instant up to which to process builds when --from is used (if omitted, builds up to now are processed)",
+        defaultValue = Option.NULL_VALUE,
+        order = 12
+    )
+    Instant to;
+
+    @Option(
+        names = "--slices",
+        description = "The number of time slices that the range between --from and --to is split into and processed concurrently (default: ${DEFAULT-VALUE})",
+        defaultValue = "4",
+        order = 13
+    )
+    int slices;
+
+    @Option(
+        names = "--model-cache-dir",
+        description = "The path to a directory in which fetched build models are cached across runs (if omitted, models are not cached)",
+        defaultValue = Option.NULL_VALUE,
+        order = 14
+    )
+    Path modelCacheDir;
+
+    @Option(
+        names = "--model-cache-max-mb",
+        description = "The maximum size of the model cache in megabytes, beyond which the least recently used models are deleted (default: ${DEFAULT-VALUE})",
+        defaultValue = "512",
+        order = 15
+    )
+    long modelCacheMaxMb;
+
+    @Option(
+        names = "--stream-build-cache-performance",
+        description = "A boolean indicating whether build cache performance models are read as a stream, without holding all task or goal executions in memory (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 16
+    )
+    boolean streamBuildCachePerformance;
+
+    @Option(
+        names = "--async",
+        description = "A boolean indicating whether builds are processed with the non-blocking API client, running the requests for a page of builds on --concurrency threads, limited and retried like blocking requests. Requires Java 11 or later (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 17
+    )
+    boolean async;
+
+    @Option(
+        names = "--virtual-threads",
+        description = "A boolean indicating whether each build is fetched and processed on its own virtual thread, at most --concurrency at a time. Requires Java 21 or later (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 18
+    )
+    boolean virtualThreads;
+
+    @Option(
+        names = "--output",
+        description = "The format in which the results are written to the standard output: text, ndjson or csv (default: ${DEFAULT-VALUE})",
+        defaultValue = "TEXT",
+        order = 19
+    )
+    OutputFormat output;
+
+    @Option(
+        names = "--queue-overflow",
+        description = "What happens when the builds fetched ahead with --prefetch-pages exceed the queue: block fetching, shed_oldest builds or spill them to disk (default: ${DEFAULT-VALUE})",
+        defaultValue = "BLOCK",
+        order = 20
+    )
+    BuildsQueue.OverflowPolicy queueOverflow;
+
+    @Option(
+        names = "--spill-dir",
+        description = "The path to the directory to which builds are spilled when --queue-overflow is spill (if omitted, a temporary directory is used)",
+        defaultValue = Option.NULL_VALUE,
+        order = 21
+    )
+    Path spillDir;
+
     @Override
     public Integer call() throws Exception {
+        validateOptions();
+
         DevelocityApi api = apiProvider.create();
-        BuildProcessor buildProcessor = new BuildCacheBuildProcessor(api, projectName);
-        BuildsProcessor buildsProcessor = new BuildsProcessor(api, buildProcessor, reverse, maxBuilds, maxWaitSecs);
+        // status messages are kept apart from the results, which are written to the standard output through their own buffer
+        PrintStream messages = System.err;
+        BufferedBuildResultSink resultSink = new BufferedBuildResultSink(
+            output,
+            new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE),
+            OUTPUT_FLUSH_INTERVAL
+        );
+        Runtime.getRuntime().addShutdownHook(new Thread(resultSink::flush));
+        try {
+            if (async) {
+                processBuildsAsync(api, messages, resultSink);
+            } else {
+                processBuilds(api, messages, resultSink);
+            }
+        } finally {
+            // the results still buffered are written even when processing failed
+            try {
+                resultSink.flush();
+            } finally {
+                resultSink.close();
+            }
+        }
 
-        System.out.println("Processing builds ...");
+        return 0;
+    }
 
-        Instant startProcessingTime = reverse ? Instant.now() : Instant.now().minus(Duration.ofMinutes(15));
-        buildsProcessor.process(startProcessingTime);
+    // Invalid combinations are reported with the usage help, before anything is set up or printed
+    private void validateOptions() {
+        if (resume && (reverse || checkpointFile == null)) {
+            throw new ParameterException(spec.commandLine(), "--resume requires --checkpoint-file and cannot be combined with --reverse");
+        }
+        if (from != null && (reverse || resume)) {
+            throw new ParameterException(spec.commandLine(), "--from cannot be combined with --reverse or --resume");
+        }
+        if (from != null && (!from.isBefore(to == null ? Instant.now() : to) || slices < 1)) {
+            throw new ParameterException(spec.commandLine(), "--from must be before --to, and --slices must be at least 1");
+        }
+        if (async && (checkpointFile != null || prefetchPages > 0 || from != null || modelCacheDir != null || streamBuildCachePerformance || virtualThreads)) {
+            throw new ParameterException(spec.commandLine(), "--async cannot be combined with --checkpoint-file, --prefetch-pages, --from, --model-cache-dir, --stream-build-cache-performance or --virtual-threads");
+        }
+    }
 
-        return 0;
+    private void processBuildsAsync(DevelocityApi api, PrintStream messages, BuildResultSink resultSink) throws Exception {
+        messages.println("Processing builds ...");
+        AsyncBuildsRunner.load().run(
+            apiProvider,
+            new BuildCacheBuildProcessor(api, projectName, null, apiProvider.getMetrics(), resultSink),
+            projectName,
+            reverse,
+            maxBuilds,
+            maxWaitSecs,
+            projectName == null ? null : BuildsQueryUtils.projectNameEquals(projectName),
+            inlineModels ? BuildCacheBuildProcessor.MODELS : Collections.emptyList(),
+            concurrency,
+            reverse ? Instant.now() : Instant.now().minus(Duration.ofMinutes(15))
+        );
+    }
+
+    private void processBuilds(DevelocityApi api, PrintStream messages, BuildResultSink resultSink) throws Exception {
+        BuildsCheckpoint checkpoint = checkpointFile == null || reverse || from != null ? null : new BuildsCheckpoint(checkpointFile, CHECKPOINT_FLUSH_INTERVAL);
+        if (checkpoint != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(checkpoint::flush));
+        }
+
+        ExecutorService workers = WorkerExecutors.create(virtualThreads, concurrency);
+        try {
+            BuildModelCache modelCache = modelCacheDir == null ? null : new BuildModelCache(modelCacheDir, modelCacheMaxMb * 1024 * 1024, api.getApiClient().getObjectMapper());
+            // further build processors can be added here, sharing the models fetched for each build
+            StreamingBuildCachePerformanceReader streamingReader = streamBuildCachePerformance
+                ? new StreamingBuildCachePerformanceReader(apiProvider.getHttpClient(), apiProvider.getServerUrl(), apiProvider.getAccessKey(), api.getApiClient().getObjectMapper().getFactory(), apiProvider.getApiCallInterceptor())
+                : null;
+            BuildProcessor buildProcessor = new CompositeBuildProcessor(Collections.singletonList(
+                new BuildCacheBuildProcessor(api, projectName, streamingReader, apiProvider.getMetrics(), resultSink)
+            ));
+            BuildsProcessor buildsProcessor = new BuildsProcessor(
+                api,
+                buildProcessor,
+                new BuildModelFetcher(api, modelCache),
+                reverse,
+                maxBuilds,
+                maxWaitSecs,
+                // only builds of the requested project are returned, so that no models are fetched for other builds
+                projectName == null ? null : BuildsQueryUtils.projectNameEquals(projectName),
+                !inlineModels ? Collections.emptyList() : streamBuildCachePerformance ? BuildCacheBuildProcessor.ATTRIBUTES_MODELS : BuildCacheBuildProcessor.MODELS,
+                workers,
+                checkpoint,
+                prefetchPages,
+                queueOverflow,
+                spillDirectory(),
+                apiProvider.getMetrics()
+            );
+
+            messages.println("Processing builds ...");
+
+            Optional<String> resumeFromBuild = resume ? checkpoint.read() : Optional.empty();
+            if (from != null) {
+                buildsProcessor.processRange(from, to == null ? Instant.now() : to, slices);
+            } else if (resumeFromBuild.isPresent()) {
+                messages.println("Resuming after build " + resumeFromBuild.get());
+                buildsProcessor.process(resumeFromBuild.get());
+            } else {
+                Instant startProcessingTime = reverse ? Instant.now() : Instant.now().minus(Duration.ofMinutes(15));
+                buildsProcessor.process(startProcessingTime);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // A temporary directory is only created when builds can actually be spilled, and is deleted when the program stops
+    private Path spillDirectory() throws IOException {
+        boolean spilling = queueOverflow == BuildsQueue.OverflowPolicy.SPILL && prefetchPages > 0 && !reverse && from == null;
+        if (!spilling || spillDir != null) {
+            return spillDir;
+        }
+        Path spillDirectory = Files.createTempDirectory("develocity-builds-");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteDirectory(spillDirectory)));
+        return spillDirectory;
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.err.println("Failed to delete " + directory + ": " + e.getMessage());
+        }
     }
 
 }
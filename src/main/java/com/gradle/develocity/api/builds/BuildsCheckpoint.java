@@ -0,0 +1,69 @@
+package com.gradle.develocity.api.builds;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Remembers the ID of the last build up to which all builds have been processed.
+ * <p>
+ * Recorded IDs are written to the checkpoint file at most once per flush interval. The file is replaced atomically,
+ * so that a crash in the middle of a flush leaves the previous checkpoint intact.
+ */
+final class BuildsCheckpoint {
+
+    private final Path file;
+    private final Duration flushInterval;
+
+    private String lastBuildId;
+    private String flushedBuildId;
+    private Instant lastFlush = Instant.now();
+
+    BuildsCheckpoint(Path file, Duration flushInterval) {
+        this.file = file;
+        this.flushInterval = flushInterval;
+    }
+
+    Optional<String> read() {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            String buildId = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            return buildId.isEmpty() ? Optional.empty() : Optional.of(buildId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void record(String buildId) {
+        lastBuildId = buildId;
+        if (Duration.between(lastFlush, Instant.now()).compareTo(flushInterval) >= 0) {
+            flush();
+        }
+    }
+
+    synchronized void flush() {
+        if (lastBuildId == null || lastBuildId.equals(flushedBuildId)) {
+            return;
+        }
+        try {
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tempFile, lastBuildId.getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flushedBuildId = lastBuildId;
+        lastFlush = Instant.now();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildsQuery;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fetches pages of builds ahead of their processing on a background thread.
+ * <p>
+ * The next page is requested as soon as the previous one arrives, using the ID of its last build as the cursor.
+ * Fetched pages are handed over through a {@link BuildsQueue}, which bounds the builds held until they are taken for processing.
+ */
+final class BuildsPrefetcher implements AutoCloseable {
+
+    interface PageSource {
+        List<Build> fetch(Consumer<BuildsQuery> fromApplicator) throws ApiException;
+    }
+
+    private final BuildsQueue queue;
+    private final Thread thread;
+
+    BuildsPrefetcher(PageSource pageSource, Consumer<BuildsQuery> fromApplicator, BuildsQueue queue) {
+        this.queue = queue;
+        this.thread = new Thread(() -> fetchPages(pageSource, fromApplicator), "builds-prefetcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    List<Build> next() throws ApiException, InterruptedException {
+        return queue.take();
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+
+    // Any failure ends fetching and is rethrown to the consumer once it has taken the pages fetched before it
+    private void fetchPages(PageSource pageSource, Consumer<BuildsQuery> fromApplicator) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Build> builds = pageSource.fetch(fromApplicator);
+                if (!builds.isEmpty()) {
+                    // the cursor follows the page fetched last, even if some of its builds are shed by the queue
+                    String lastBuildId = builds.get(builds.size() - 1).getId();
+                    queue.put(builds);
+                    fromApplicator = buildsQuery -> buildsQuery.fromBuild(lastBuildId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ApiException | RuntimeException | Error e) {
+            queue.fail(e);
+        }
+    }
+
+}
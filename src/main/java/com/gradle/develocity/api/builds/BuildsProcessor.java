@@ -3,46 +3,199 @@ package com.gradle.develocity.api.builds;
 import com.gradle.develocity.api.DevelocityApi;
 import com.gradle.develocity.api.client.ApiException;
 import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
 import com.gradle.develocity.api.model.BuildsQuery;
+import com.gradle.develocity.api.shared.Metrics;
+import com.gradle.develocity.api.shared.ProcessingStage;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 final class BuildsProcessor {
 
     private final DevelocityApi api;
     private final BuildProcessor buildProcessor;
+    private final BuildModelFetcher modelFetcher;
     private final boolean reverse;
     private final int maxBuilds;
     private final int maxWaitSecs;
+    private final String searchQuery;
+    private final List<BuildModelName> models;
+    private final Executor workers;
+    private final BuildsCheckpoint checkpoint;
+    private final int prefetchPages;
+    private final BuildsQueue.OverflowPolicy overflowPolicy;
+    private final Path spillDirectory;
+    private final Metrics metrics;
+    private final Metrics.Counter processedBuilds;
+    private final Metrics.Histogram processingTime;
+    private final Metrics.Histogram processingLag;
 
-    BuildsProcessor(DevelocityApi api, BuildProcessor buildProcessor, boolean reverse, int maxBuilds, int maxWaitSecs) {
+    BuildsProcessor(DevelocityApi api, BuildProcessor buildProcessor, BuildModelFetcher modelFetcher, boolean reverse, int maxBuilds, int maxWaitSecs, String searchQuery, List<BuildModelName> models, Executor workers, BuildsCheckpoint checkpoint, int prefetchPages, BuildsQueue.OverflowPolicy overflowPolicy, Path spillDirectory, Metrics metrics) {
         this.api = api;
         this.buildProcessor = buildProcessor;
+        this.modelFetcher = modelFetcher;
         this.reverse = reverse;
         this.maxBuilds = maxBuilds;
         this.maxWaitSecs = maxWaitSecs;
+        this.searchQuery = searchQuery;
+        this.models = models;
+        this.workers = workers;
+        this.checkpoint = checkpoint;
+        this.prefetchPages = prefetchPages;
+        this.overflowPolicy = overflowPolicy;
+        this.spillDirectory = spillDirectory;
+        this.metrics = metrics;
+        this.processedBuilds = metrics.counter("develocity_builds_processed_total", "Builds processed");
+        this.processingTime = metrics.histogram("develocity_build_processing_seconds", "Time taken to process a build, including fetching its models", Metrics.LATENCY_BUCKETS);
+        // a growing lag means that processing does not keep up with the builds being published
+        this.processingLag = metrics.histogram("develocity_build_processing_lag_seconds", "Time between a build becoming available and it being processed", Metrics.LAG_BUCKETS);
     }
 
-    void process(Instant fromInstant) throws ApiException {
-        Consumer<BuildsQuery> fromApplicator = buildsQuery -> buildsQuery.fromInstant(fromInstant.toEpochMilli());
+    void process(Instant fromInstant) throws ApiException, InterruptedException {
+        process(buildsQuery -> buildsQuery.fromInstant(fromInstant.toEpochMilli()));
+    }
+
+    void process(String fromBuild) throws ApiException, InterruptedException {
+        process(buildsQuery -> buildsQuery.fromBuild(fromBuild));
+    }
+
+    /**
+     * Processes the builds that became available between the given instants.
+     * The range is split into slices of equal length, each of which is walked forward concurrently with its own cursor.
+     */
+    void processRange(Instant fromInstant, Instant toInstant, int slices) throws ApiException {
+        Duration sliceLength = Duration.between(fromInstant, toInstant).dividedBy(slices);
+        ExecutorService sliceExecutor = Executors.newFixedThreadPool(slices);
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < slices; i++) {
+                int slice = i + 1;
+                Instant sliceStart = fromInstant.plus(sliceLength.multipliedBy(i));
+                Instant sliceEnd = slice == slices ? toInstant : sliceStart.plus(sliceLength);
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return processSlice(slice, slices, sliceStart, sliceEnd);
+                    } catch (ApiException e) {
+                        throw new CompletionException(e);
+                    }
+                }, sliceExecutor));
+            }
+
+            int processedBuilds = results.stream().mapToInt(CompletableFuture::join).sum();
+            System.err.printf("Processed %d builds between %s and %s%n", processedBuilds, fromInstant, toInstant);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            }
+            throw e;
+        } finally {
+            sliceExecutor.shutdownNow();
+        }
+    }
 
+    private int processSlice(int slice, int slices, Instant sliceStart, Instant sliceEnd) throws ApiException {
+        Consumer<BuildsQuery> fromApplicator = buildsQuery -> buildsQuery.fromInstant(sliceStart.toEpochMilli());
+        int processedBuilds = 0;
         while (true) {
-            BuildsQuery query = new BuildsQuery();
-            query.setReverse(reverse);
-            query.setMaxBuilds(maxBuilds);
-            query.setMaxWaitSecs(maxWaitSecs);
-            fromApplicator.accept(query);
-
-            List<Build> builds = api.getBuilds(query);
-            builds.forEach(buildProcessor::process);
-            if (reverse) {
-                break;
-            } else if (!builds.isEmpty()) {
-                fromApplicator = buildsQuery -> buildsQuery.fromBuild(builds.get(builds.size() - 1).getId());
+            List<Build> page = fetchPage(fromApplicator);
+            List<Build> builds = page.stream()
+                .filter(build -> build.getAvailableAt() < sliceEnd.toEpochMilli())
+                .collect(Collectors.toList());
+            processBuilds(builds);
+            processedBuilds += builds.size();
+            System.err.printf("Slice %d/%d: processed %d builds from %s%n", slice, slices, processedBuilds, sliceStart);
+
+            // the slice is complete once it reaches a build of the next slice, or the builds published most recently
+            if (builds.size() < page.size() || page.isEmpty()) {
+                return processedBuilds;
+            }
+            String lastBuildId = page.get(page.size() - 1).getId();
+            fromApplicator = buildsQuery -> buildsQuery.fromBuild(lastBuildId);
+        }
+    }
+
+    private void process(Consumer<BuildsQuery> fromApplicator) throws ApiException, InterruptedException {
+        if (reverse) {
+            processPage(fetchPage(fromApplicator));
+        } else if (prefetchPages > 0) {
+            processPrefetched(fromApplicator);
+        } else {
+            while (true) {
+                List<Build> builds = fetchPage(fromApplicator);
+                if (!builds.isEmpty()) {
+                    processPage(builds);
+                    String lastBuildId = builds.get(builds.size() - 1).getId();
+                    fromApplicator = buildsQuery -> buildsQuery.fromBuild(lastBuildId);
+                }
             }
         }
     }
 
+    // The next pages are fetched while the current one is processed, overlapping network and processing time.
+    // At most prefetchPages full pages of builds are held in memory, however they are split across pages.
+    private void processPrefetched(Consumer<BuildsQuery> fromApplicator) throws ApiException, InterruptedException {
+        BuildsQueue queue = new BuildsQueue(prefetchPages * maxBuilds, overflowPolicy, spillDirectory, api.getApiClient().getObjectMapper(), metrics);
+        try (BuildsPrefetcher prefetcher = new BuildsPrefetcher(this::fetchPage, fromApplicator, queue)) {
+            while (true) {
+                processPage(prefetcher.next());
+            }
+        }
+    }
+
+    private List<Build> fetchPage(Consumer<BuildsQuery> fromApplicator) throws ApiException {
+        BuildsQuery query = new BuildsQuery();
+        query.setReverse(reverse);
+        query.setMaxBuilds(maxBuilds);
+        query.setMaxWaitSecs(maxWaitSecs);
+        if (searchQuery != null) {
+            query.setQuery(searchQuery);
+        }
+        if (!models.isEmpty()) {
+            query.setModels(models);
+        }
+        fromApplicator.accept(query);
+
+        ProcessingStage stage = ProcessingStage.start(ProcessingStage.PAGE_FETCH, null);
+        try {
+            return api.getBuilds(query);
+        } finally {
+            stage.commit();
+        }
+    }
+
+    // The cursor only moves past a page once every build of that page has been processed,
+    // so builds of a page may complete in any order without any of them being skipped.
+    private void processPage(List<Build> builds) {
+        processBuilds(builds);
+        if (checkpoint != null && !builds.isEmpty()) {
+            checkpoint.record(builds.get(builds.size() - 1).getId());
+        }
+    }
+
+    private void processBuilds(List<Build> builds) {
+        CompletableFuture.allOf(builds.stream()
+                .map(build -> CompletableFuture.runAsync(() -> processBuild(build), workers))
+                .toArray(CompletableFuture[]::new))
+            .join();
+    }
+
+    private void processBuild(Build build) {
+        long startNanos = System.nanoTime();
+        buildProcessor.process(new BuildModelContext(build, modelFetcher));
+        processingTime.observeNanos(System.nanoTime() - startNanos);
+        processingLag.observe((System.currentTimeMillis() - build.getAvailableAt()) / 1000.0);
+        processedBuilds.increment();
+    }
+
 }
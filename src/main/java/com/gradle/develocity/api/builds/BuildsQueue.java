@@ -0,0 +1,221 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.shared.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Hands pages of builds over from the poller to the processing, holding at most {@code capacity} builds in memory.
+ * <p>
+ * What happens to a page that does not fit depends on the overflow policy: the poller is blocked until enough builds
+ * have been taken, the oldest builds are dropped, or the page is written to a file and read back once it is taken.
+ * Pages are always taken in the order they were put.
+ */
+final class BuildsQueue {
+
+    enum OverflowPolicy {
+        BLOCK,
+        SHED_OLDEST,
+        SPILL
+    }
+
+    private static final TypeReference<List<Build>> BUILDS_TYPE = new TypeReference<List<Build>>() {
+    };
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillDirectory;
+    private final ObjectMapper objectMapper;
+    private final Metrics.Counter shedBuilds;
+    private final Metrics.Counter spilledBuilds;
+    private final AtomicInteger spillFileCounter = new AtomicInteger();
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private int buildsInMemory;
+    private int buildsSpilled;
+    private Throwable failure;
+
+    BuildsQueue(int capacity, OverflowPolicy overflowPolicy, Path spillDirectory, ObjectMapper objectMapper, Metrics metrics) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.spillDirectory = spillDirectory;
+        this.objectMapper = objectMapper;
+        this.shedBuilds = metrics.counter("develocity_builds_queue_shed_total", "Builds dropped from the queue, oldest first, as it was full");
+        this.spilledBuilds = metrics.counter("develocity_builds_queue_spilled_total", "Builds written to disk as the queue was full");
+        metrics.gauge("develocity_builds_queue_depth", "Builds polled but not yet taken for processing", this::depth, "storage", "memory");
+        metrics.gauge("develocity_builds_queue_depth", "Builds polled but not yet taken for processing", this::spilledDepth, "storage", "disk");
+    }
+
+    // Spill files are written and read outside the lock, so that neither side waits for the other's disk access.
+    // This keeps the order of the pages, as there is a single poller putting them and a single consumer taking them.
+    void put(List<Build> builds) throws InterruptedException {
+        if (overflowPolicy == OverflowPolicy.SPILL && !fitsInMemory(builds)) {
+            Path spillFile;
+            try {
+                spillFile = spill(builds);
+            } catch (UncheckedIOException e) {
+                fail(e);
+                throw e;
+            }
+            synchronized (this) {
+                segments.addLast(new Segment(null, spillFile, builds.size()));
+                buildsSpilled += builds.size();
+                notifyAll();
+            }
+            spilledBuilds.add(builds.size());
+            return;
+        }
+        putInMemory(builds);
+    }
+
+    private synchronized void putInMemory(List<Build> builds) throws InterruptedException {
+        switch (overflowPolicy) {
+            case BLOCK:
+                // a page larger than the capacity is still accepted once the queue is empty
+                while (buildsInMemory > 0 && buildsInMemory + builds.size() > capacity) {
+                    wait();
+                }
+                addInMemory(builds);
+                break;
+            case SHED_OLDEST:
+                addInMemory(builds);
+                shedOldest(buildsInMemory - capacity);
+                break;
+            case SPILL:
+                addInMemory(builds);
+                break;
+            default:
+                throw new IllegalArgumentException("Overflow policy " + overflowPolicy + " is not supported");
+        }
+        notifyAll();
+    }
+
+    // Reported once all builds put before the failure have been taken
+    synchronized void fail(Throwable failure) {
+        this.failure = failure;
+        notifyAll();
+    }
+
+    List<Build> take() throws ApiException, InterruptedException {
+        Segment segment;
+        synchronized (this) {
+            while (segments.isEmpty()) {
+                if (failure != null) {
+                    rethrowFailure();
+                }
+                wait();
+            }
+            segment = segments.removeFirst();
+            if (segment.spillFile == null) {
+                buildsInMemory -= segment.size;
+            } else {
+                buildsSpilled -= segment.size;
+            }
+            notifyAll();
+        }
+        return segment.spillFile == null ? segment.builds : readSpilled(segment.spillFile);
+    }
+
+    private void rethrowFailure() throws ApiException {
+        if (failure instanceof ApiException) {
+            throw (ApiException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IllegalStateException("Fetching builds failed", failure);
+    }
+
+    synchronized int depth() {
+        return buildsInMemory;
+    }
+
+    synchronized int spilledDepth() {
+        return buildsSpilled;
+    }
+
+    private synchronized boolean fitsInMemory(List<Build> builds) {
+        return buildsInMemory + builds.size() <= capacity;
+    }
+
+    private void addInMemory(List<Build> builds) {
+        segments.addLast(new Segment(builds, null, builds.size()));
+        buildsInMemory += builds.size();
+    }
+
+    private void shedOldest(int excess) {
+        if (excess <= 0) {
+            return;
+        }
+        int remainingExcess = excess;
+        while (remainingExcess > 0) {
+            Segment oldest = segments.removeFirst();
+            buildsInMemory -= oldest.size;
+            if (oldest.size > remainingExcess) {
+                // the newer builds of a partly shed page are kept
+                List<Build> keptBuilds = new ArrayList<>(oldest.builds.subList(remainingExcess, oldest.size));
+                segments.addFirst(new Segment(keptBuilds, null, keptBuilds.size()));
+                buildsInMemory += keptBuilds.size();
+                remainingExcess = 0;
+            } else {
+                remainingExcess -= oldest.size;
+            }
+        }
+        shedBuilds.add(excess);
+        System.err.printf("Builds queue is full, dropped the %d oldest builds%n", excess);
+    }
+
+    private Path spill(List<Build> builds) {
+        Path spillFile = spillDirectory.resolve("builds-" + spillFileCounter.incrementAndGet() + ".json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(spillFile))) {
+            objectMapper.writeValue(out, builds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return spillFile;
+    }
+
+    private List<Build> readSpilled(Path spillFile) {
+        try {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(spillFile))) {
+                return objectMapper.readValue(in, BUILDS_TYPE);
+            } finally {
+                Files.delete(spillFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Segment {
+        private final List<Build> builds;
+        private final Path spillFile;
+        private final int size;
+
+        private Segment(List<Build> builds, Path spillFile, int size) {
+            this.builds = builds;
+            this.spillFile = spillFile;
+            this.size = size;
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.gradle.develocity.api.builds;
+
+import java.util.List;
+
+/**
+ * Hands each build to several build processors, which share the models fetched for the build.
+ */
+final class CompositeBuildProcessor implements BuildProcessor {
+
+    private final List<BuildProcessor> buildProcessors;
+
+    CompositeBuildProcessor(List<BuildProcessor> buildProcessors) {
+        this.buildProcessors = buildProcessors;
+    }
+
+    @Override
+    public void process(BuildModelContext context) {
+        buildProcessors.forEach(buildProcessor -> buildProcessor.process(context));
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.gradle.develocity.api.builds;
+
+enum OutputFormat {
+    TEXT,
+    NDJSON,
+    CSV
+}
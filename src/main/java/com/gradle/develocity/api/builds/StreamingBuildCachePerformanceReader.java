@@ -0,0 +1,122 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.shared.ApiCallInterceptor;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads build cache performance models as a stream of JSON tokens, counting cache hits on the fly.
+ * <p>
+ * Unlike the generated client, this never holds the full list of task or goal executions in memory,
+ * which can run into the hundreds of thousands of entries for large builds.
+ */
+final class StreamingBuildCachePerformanceReader {
+
+    private final CloseableHttpClient httpClient;
+    private final String basePath;
+    private final String accessKey;
+    private final JsonFactory jsonFactory;
+    private final ApiCallInterceptor interceptor;
+
+    StreamingBuildCachePerformanceReader(CloseableHttpClient httpClient, String basePath, String accessKey, JsonFactory jsonFactory, ApiCallInterceptor interceptor) {
+        this.httpClient = httpClient;
+        this.basePath = basePath;
+        this.accessKey = accessKey;
+        this.jsonFactory = jsonFactory;
+        this.interceptor = interceptor;
+    }
+
+    BuildCachePerformanceSummary readGradle(String buildId, Set<String> cacheHitOutcomes) throws ApiException {
+        return interceptor.intercept("getGradleBuildCachePerformance", () -> read(buildId, "gradle-build-cache-performance", "taskExecution", cacheHitOutcomes));
+    }
+
+    BuildCachePerformanceSummary readMaven(String buildId, Set<String> cacheHitOutcomes) throws ApiException {
+        return interceptor.intercept("getMavenBuildCachePerformance", () -> read(buildId, "maven-build-cache-performance", "goalExecution", cacheHitOutcomes));
+    }
+
+    private BuildCachePerformanceSummary read(String buildId, String model, String executionsField, Set<String> cacheHitOutcomes) throws ApiException {
+        HttpGet request = new HttpGet(basePath + "/api/builds/" + buildId + "/" + model);
+        request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessKey);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+
+        try (ClassicHttpResponse response = httpClient.executeOpen(null, request, null)) {
+            if (response.getCode() >= 300) {
+                throw new ApiException(response.getCode(), responseHeaders(response), EntityUtils.toString(response.getEntity()));
+            }
+            try (JsonParser parser = jsonFactory.createParser(response.getEntity().getContent())) {
+                return summarize(parser, executionsField, cacheHitOutcomes);
+            }
+        } catch (IOException | ParseException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    static BuildCachePerformanceSummary summarize(JsonParser parser, String executionsField, Set<String> cacheHitOutcomes) throws IOException {
+        int numExecutions = 0;
+        int numCacheHits = 0;
+        Double avoidanceSavingsRatio = null;
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a build cache performance object but found " + parser.currentToken());
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals(executionsField) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    numExecutions++;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String executionField = parser.currentName();
+                        parser.nextToken();
+                        if (executionField.equals("avoidanceOutcome") && cacheHitOutcomes.contains(parser.getText())) {
+                            numCacheHits++;
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            } else if (field.equals("avoidanceSavingsSummary") && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String summaryField = parser.currentName();
+                    parser.nextToken();
+                    if (summaryField.equals("ratio")) {
+                        avoidanceSavingsRatio = parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getDoubleValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new BuildCachePerformanceSummary(numExecutions, numCacheHits, avoidanceSavingsRatio);
+    }
+
+    // header names are lower-cased, as expected by ApiProblemParser
+    private static Map<String, List<String>> responseHeaders(ClassicHttpResponse response) {
+        Map<String, List<String>> headers = new HashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.computeIfAbsent(header.getName().toLowerCase(Locale.ROOT), __ -> new ArrayList<>()).add(header.getValue());
+        }
+        return headers;
+    }
+
+}
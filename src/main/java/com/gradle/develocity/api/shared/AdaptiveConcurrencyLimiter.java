@@ -0,0 +1,65 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+
+/**
+ * Limits the number of concurrent API calls, adapting the limit to how the server copes with the load.
+ * <p>
+ * The limit is decided by a {@link ConcurrencyLimit}, which is shared with non-blocking API calls:
+ * a call waits while the limit is reached or while the server asked to retry later.
+ */
+public final class AdaptiveConcurrencyLimiter implements ApiCallInterceptor {
+
+    private final ConcurrencyLimit limit;
+    private final ObjectMapper objectMapper;
+
+    public AdaptiveConcurrencyLimiter(int maxLimit, ObjectMapper objectMapper) {
+        this.limit = new ConcurrencyLimit(maxLimit);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T intercept(String operation, ApiCall<T> call) throws ApiException {
+        long startNanos = acquire();
+        try {
+            T result = call.execute();
+            limit.onSuccess();
+            return result;
+        } catch (ApiException e) {
+            if (ApiErrorClassifier.classify(e, objectMapper) == ApiErrorType.THROTTLED) {
+                limit.onThrottled(operation, startNanos, ApiErrorClassifier.retryAfter(e));
+            }
+            throw e;
+        } finally {
+            limit.release();
+        }
+    }
+
+    int getLimit() {
+        return limit.getLimit();
+    }
+
+    private long acquire() throws ApiException {
+        synchronized (limit) {
+            try {
+                while (true) {
+                    long pauseMillis = limit.pauseMillis();
+                    if (pauseMillis > 0) {
+                        limit.wait(pauseMillis);
+                    } else if (limit.tryAcquire()) {
+                        break;
+                    } else {
+                        // woken up when a call is released
+                        limit.wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiException(e);
+            }
+        }
+        return System.nanoTime();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.gradle.develocity.api.shared;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gradle.develocity.api.ApiCall")
+@Label("Develocity API Call")
+@Description("A request to the Develocity API, lasting until its response body has been read")
+@Category("Develocity API Samples")
+@StackTrace(false)
+final class ApiCallEvent extends jdk.jfr.Event {
+
+    private static final String BUILDS_PATH = "/api/builds/";
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    @Description("The path of the request, with the build ID replaced by {id}")
+    String endpoint;
+
+    @Label("Build ID")
+    String buildId;
+
+    @Label("Status")
+    @Description("The status code of the response, or 0 if no response was received")
+    int status;
+
+    @Label("Bytes")
+    @Description("The size of the response body, after decompression")
+    @DataAmount
+    long bytes;
+
+    // the build ID is kept separately, so that the calls of an endpoint can be aggregated
+    void setPath(String path) {
+        int queryStart = path.indexOf('?');
+        String pathWithoutQuery = queryStart < 0 ? path : path.substring(0, queryStart);
+        int buildsPathIndex = pathWithoutQuery.indexOf(BUILDS_PATH);
+        if (buildsPathIndex < 0) {
+            endpoint = pathWithoutQuery;
+            return;
+        }
+        int buildIdStart = buildsPathIndex + BUILDS_PATH.length();
+        int buildIdEnd = pathWithoutQuery.indexOf('/', buildIdStart);
+        if (buildIdEnd < 0) {
+            buildIdEnd = pathWithoutQuery.length();
+        }
+        buildId = pathWithoutQuery.substring(buildIdStart, buildIdEnd);
+        endpoint = pathWithoutQuery.substring(0, buildIdStart) + "{id}" + pathWithoutQuery.substring(buildIdEnd);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.gradle.develocity.api.shared;
+
+import com.gradle.develocity.api.client.ApiException;
+
+import java.util.List;
+
+/**
+ * Wraps each call to the Develocity API, e.g. to limit, retry or measure it.
+ */
+public interface ApiCallInterceptor {
+
+    <T> T intercept(String operation, ApiCall<T> call) throws ApiException;
+
+    interface ApiCall<T> {
+        T execute() throws ApiException;
+    }
+
+    /**
+     * Combines the given interceptors, the first of which wraps all the others.
+     */
+    static ApiCallInterceptor chain(List<ApiCallInterceptor> interceptors) {
+        return new ApiCallInterceptor() {
+            @Override
+            public <T> T intercept(String operation, ApiCall<T> call) throws ApiException {
+                ApiCall<T> chainedCall = call;
+                for (int i = interceptors.size() - 1; i >= 0; i--) {
+                    ApiCallInterceptor interceptor = interceptors.get(i);
+                    ApiCall<T> nextCall = chainedCall;
+                    chainedCall = () -> interceptor.intercept(operation, nextCall);
+                }
+                return chainedCall.execute();
+            }
+        };
+    }
+
+}
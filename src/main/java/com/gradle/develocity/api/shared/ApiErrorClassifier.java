@@ -0,0 +1,77 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.ApiProblem;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public final class ApiErrorClassifier {
+
+    private static final String BUILD_DELETED_PROBLEM_TYPE = "urn:gradle:enterprise:api:problems:build-deleted";
+
+    private ApiErrorClassifier() {
+    }
+
+    public static ApiErrorType classify(ApiException apiException, ObjectMapper objectMapper) {
+        if (BUILD_DELETED_PROBLEM_TYPE.equals(problemType(apiException, objectMapper))) {
+            return ApiErrorType.PERMANENT;
+        }
+
+        int code = apiException.getCode();
+        if (code == 429 || code == 503) {
+            return ApiErrorType.THROTTLED;
+        } else if (code == 0 || code == 408 || code >= 500) {
+            // a code of 0 means that no response was received, e.g. due to a timeout
+            return ApiErrorType.TRANSIENT;
+        } else {
+            return ApiErrorType.PERMANENT;
+        }
+    }
+
+    /**
+     * The delay requested by the server through the Retry-After header, given in seconds or as an HTTP date.
+     */
+    public static Optional<Duration> retryAfter(ApiException apiException) {
+        return header(apiException, "retry-after").flatMap(value -> {
+            try {
+                return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+            } catch (NumberFormatException e) {
+                try {
+                    Instant retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    Duration delay = Duration.between(Instant.now(), retryAt);
+                    return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+                } catch (DateTimeParseException __) {
+                    return Optional.empty();
+                }
+            }
+        });
+    }
+
+    private static String problemType(ApiException apiException, ObjectMapper objectMapper) {
+        try {
+            return ApiProblemParser.maybeParse(apiException, objectMapper).map(ApiProblem::getType).orElse(null);
+        } catch (UncheckedIOException e) {
+            // the problem could not be parsed, so it is classified by its status code only
+            return null;
+        }
+    }
+
+    private static Optional<String> header(ApiException apiException, String name) {
+        Map<String, List<String>> responseHeaders = apiException.getResponseHeaders() == null ? Collections.emptyMap() : apiException.getResponseHeaders();
+        return responseHeaders.entrySet().stream()
+            .filter(header -> header.getKey() != null && header.getKey().equalsIgnoreCase(name))
+            .flatMap(header -> header.getValue().stream())
+            .findFirst();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.gradle.develocity.api.shared;
+
+public enum ApiErrorType {
+    // the server asks clients to slow down
+    THROTTLED,
+    // the same call may succeed when made again
+    TRANSIENT,
+    // the same call will fail again
+    PERMANENT
+}
@@ -0,0 +1,186 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Applies the policies of the interceptors of blocking API calls to non-blocking API calls, without holding a thread while a call waits.
+ * <p>
+ * Calls take the same decisions as blocking calls: they are limited by a {@link ConcurrencyLimit} like in {@link AdaptiveConcurrencyLimiter},
+ * paused by a {@link CircuitBreakerState} like in {@link CircuitBreaker}, retried like in {@link RetryingApiCallInterceptor}
+ * and measured like in {@link MetricsApiCallInterceptor}.
+ * A call that may not start yet is queued, and is started once a call settles or the pause has passed.
+ */
+public final class AsyncApiCallInterceptor {
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final ConcurrencyLimit limit;
+    private final CircuitBreakerState circuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final Metrics metrics;
+    private final Function<Throwable, ApiException> toApiException;
+    private final ScheduledExecutorService scheduler;
+
+    private final Deque<CompletableFuture<Long>> waitingCalls = new ArrayDeque<>();
+    private boolean resumeScheduled;
+
+    AsyncApiCallInterceptor(int maxLimit, int maxRetries, Duration baseDelay, Duration maxDelay, int failureThreshold, Duration pauseDuration, ObjectMapper objectMapper, Metrics metrics, Function<Throwable, ApiException> toApiException, ScheduledExecutorService scheduler) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.limit = new ConcurrencyLimit(maxLimit);
+        this.circuitBreaker = new CircuitBreakerState(failureThreshold, pauseDuration);
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.toApiException = toApiException;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Creates an interceptor configured with the same options as the interceptors of the API created by the given provider.
+     * Failures of the non-blocking client are converted to blocking {@link ApiException}s to be classified.
+     */
+    public static AsyncApiCallInterceptor create(GradleEnterpriseApiProvider apiProvider, Function<Throwable, ApiException> toApiException) throws IOException {
+        return new AsyncApiCallInterceptor(
+            apiProvider.maxConnections,
+            apiProvider.maxRetries,
+            Duration.ofMillis(apiProvider.retryDelayMillis),
+            GradleEnterpriseApiProvider.MAX_RETRY_DELAY,
+            apiProvider.circuitBreakerFailures,
+            Duration.ofSeconds(apiProvider.circuitBreakerSecs),
+            apiProvider.create().getApiClient().getObjectMapper(),
+            apiProvider.getMetrics(),
+            toApiException,
+            // only starts retries and waiting calls, which return as soon as their request is sent
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "api-call-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            })
+        );
+    }
+
+    public <T> CompletableFuture<T> intercept(String operation, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(operation, call, 0, result);
+        return result;
+    }
+
+    private <T> void attempt(String operation, Supplier<CompletableFuture<T>> call, int retry, CompletableFuture<T> result) {
+        acquire().thenAccept(startNanos -> start(call).whenComplete((value, failure) -> {
+            metrics.histogram("develocity_api_call_seconds", "Latency of API calls", Metrics.LATENCY_BUCKETS, "operation", operation).observeNanos(System.nanoTime() - startNanos);
+            if (failure == null) {
+                limit.onSuccess();
+                circuitBreaker.onSuccess();
+                release();
+                result.complete(value);
+                return;
+            }
+
+            ApiException apiException = toApiException.apply(failure);
+            // a code of 0 means that no response was received
+            metrics.counter("develocity_api_errors_total", "API calls that failed", "operation", operation, "code", String.valueOf(apiException.getCode())).increment();
+            ApiErrorType errorType = ApiErrorClassifier.classify(apiException, objectMapper);
+            // recorded before the permit is released, so that the calls waiting for it see a pause caused by the failure
+            onFailure(operation, errorType, startNanos, apiException);
+            release();
+            if (errorType == ApiErrorType.PERMANENT || retry >= maxRetries) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            Duration delay = RetryingApiCallInterceptor.delay(retry, apiException, baseDelay, maxDelay);
+            scheduler.schedule(() -> attempt(operation, call, retry + 1, result), delay.toMillis(), MILLISECONDS);
+        }));
+    }
+
+    private void onFailure(String operation, ApiErrorType errorType, long startNanos, ApiException apiException) {
+        if (errorType == ApiErrorType.PERMANENT) {
+            // the server is responding fine, the problem lies with this particular call
+            circuitBreaker.onSuccess();
+            return;
+        }
+        if (errorType == ApiErrorType.THROTTLED) {
+            limit.onThrottled(operation, startNanos, ApiErrorClassifier.retryAfter(apiException));
+        }
+        circuitBreaker.onFailure();
+    }
+
+    private void release() {
+        limit.release();
+        grantPermits();
+    }
+
+    // A call failing before returning a future still settles its permit
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private CompletableFuture<Long> acquire() {
+        CompletableFuture<Long> permit = new CompletableFuture<>();
+        synchronized (this) {
+            waitingCalls.addLast(permit);
+        }
+        grantPermits();
+        return permit;
+    }
+
+    // Permits are granted outside the lock, as granting a permit starts its call on the current thread.
+    // After a pause, the trial call is the only one granted a permit, the others wait until it has settled.
+    private void grantPermits() {
+        List<CompletableFuture<Long>> granted = new ArrayList<>();
+        synchronized (this) {
+            while (!waitingCalls.isEmpty()) {
+                if (!limit.tryAcquire()) {
+                    scheduleResume(limit.pauseMillis());
+                    break;
+                }
+                if (!circuitBreaker.tryEnter()) {
+                    limit.release();
+                    scheduleResume(circuitBreaker.openMillis());
+                    break;
+                }
+                granted.add(waitingCalls.removeFirst());
+            }
+        }
+        long startNanos = System.nanoTime();
+        granted.forEach(permit -> permit.complete(startNanos));
+    }
+
+    // Without a pause, permits are granted again once a call settles
+    private void scheduleResume(long delayMillis) {
+        if (delayMillis > 0 && !resumeScheduled) {
+            resumeScheduled = true;
+            scheduler.schedule(this::resume, delayMillis, MILLISECONDS);
+        }
+    }
+
+    private void resume() {
+        synchronized (this) {
+            resumeScheduled = false;
+        }
+        grantPermits();
+    }
+
+}
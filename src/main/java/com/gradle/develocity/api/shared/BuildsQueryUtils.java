@@ -1,24 +1,24 @@
-package com.gradle.develocity.api.tests;
+package com.gradle.develocity.api.shared;
 
 import java.time.OffsetDateTime;
 
-final class BuildsQueryUtils {
+public final class BuildsQueryUtils {
     private BuildsQueryUtils() {
     }
 
-    static String projectNameEquals(String projectName) {
+    public static String projectNameEquals(String projectName) {
         return String.format("project:%s", projectName);
     }
 
-    static String buildsBetween(Interval timeRange) {
+    public static String buildsBetween(Interval timeRange) {
         return String.format("buildStartTime:[%s to %s]", timeRange.getStart(), timeRange.getEnd());
     }
 
-    static String buildsSince(OffsetDateTime startTimeInclusive) {
+    public static String buildsSince(OffsetDateTime startTimeInclusive) {
         return String.format("buildStartTime>=%s", startTimeInclusive);
     }
 
-    static String and(String lhs, String rhs) {
+    public static String and(String lhs, String rhs) {
         return String.format("%s and %s", lhs, rhs);
     }
 
@@ -0,0 +1,66 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+
+import java.time.Duration;
+
+/**
+ * Stops calling the API for a while once too many consecutive calls failed due to throttling or a transient error.
+ * <p>
+ * Whether a call may be made is decided by a {@link CircuitBreakerState}, which is shared with non-blocking API calls.
+ * While the circuit is open, calls wait instead of being made, so that no work is lost.
+ * Once the open duration has passed, a single trial call is let through while the others keep waiting:
+ * the circuit closes again when it succeeds, and is opened again when it fails.
+ */
+public final class CircuitBreaker implements ApiCallInterceptor {
+
+    private final CircuitBreakerState state;
+    private final ObjectMapper objectMapper;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, ObjectMapper objectMapper) {
+        this.state = new CircuitBreakerState(failureThreshold, openDuration);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T intercept(String operation, ApiCall<T> call) throws ApiException {
+        awaitClosedOrTrial();
+        // an unexpected exception still settles the call, so that a trial call cannot leave the circuit half-open
+        boolean settled = false;
+        try {
+            T result = call.execute();
+            settled = true;
+            state.onSuccess();
+            return result;
+        } catch (ApiException e) {
+            settled = true;
+            if (ApiErrorClassifier.classify(e, objectMapper) == ApiErrorType.PERMANENT) {
+                // the server is responding fine, the problem lies with this particular call
+                state.onSuccess();
+            } else {
+                state.onFailure();
+            }
+            throw e;
+        } finally {
+            if (!settled) {
+                state.onFailure();
+            }
+        }
+    }
+
+    private void awaitClosedOrTrial() throws ApiException {
+        synchronized (state) {
+            try {
+                while (!state.tryEnter()) {
+                    // while half-open, wait for the trial call to settle
+                    state.wait(state.openMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiException(e);
+            }
+        }
+    }
+
+}
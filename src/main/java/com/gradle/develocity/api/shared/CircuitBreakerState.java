@@ -0,0 +1,70 @@
+package com.gradle.develocity.api.shared;
+
+import java.time.Duration;
+
+/**
+ * Whether API calls may be made, given how the recent calls went.
+ * <p>
+ * The circuit opens once too many consecutive calls failed, and no calls are made while it is open.
+ * Once the open duration has passed, a single trial call is let through:
+ * the circuit closes again when it succeeds, and is opened again when it fails.
+ * <p>
+ * This only takes the decisions, and never blocks: a call that may not be made yet tries again once a call settles,
+ * which notifies the monitor of this object, or once the circuit has been open long enough.
+ */
+final class CircuitBreakerState {
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMillis;
+
+    CircuitBreakerState(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    // Whether a call may be made now, the first call after the circuit was open being its trial call
+    synchronized boolean tryEnter() {
+        if (state == State.OPEN && openUntilMillis - System.currentTimeMillis() <= 0) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    // The time to wait before trying again while the circuit is open, at least a millisecond, or 0 while it is closed or half-open
+    synchronized long openMillis() {
+        return state == State.OPEN ? Math.max(1, openUntilMillis - System.currentTimeMillis()) : 0;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.OPEN) {
+            // a call made before the circuit opened does not close it
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            System.err.println("Develocity server is responding again, closing the circuit breaker");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        notifyAll();
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openUntilMillis = System.currentTimeMillis() + openDuration.toMillis();
+            System.err.printf("%d consecutive API calls failed, pausing API calls for %d seconds%n", consecutiveFailures, openDuration.getSeconds());
+        }
+        notifyAll();
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.gradle.develocity.api.shared;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The number of API calls that may be in flight at the same time, adapted to how the server copes with the load.
+ * <p>
+ * The limit grows by one for each limit's worth of successful calls (additive increase),
+ * and is halved when the server throttles a call (multiplicative decrease).
+ * Calls that were already in flight when the limit was last decreased do not decrease it again,
+ * so that a single burst of throttling halves the limit only once.
+ * When the server asks to retry after a delay, no new calls are started until that delay has passed.
+ * <p>
+ * This only takes the decisions, and never blocks: a call that may not start yet tries again once a call is released,
+ * which notifies the monitor of this object, or once the pause has passed.
+ */
+final class ConcurrencyLimit {
+
+    private final int maxLimit;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos = System.nanoTime();
+    private long pausedUntilMillis;
+
+    ConcurrencyLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (pauseMillis() > 0 || inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    // The time left until calls may start again after the server asked to retry later, or 0
+    synchronized long pauseMillis() {
+        return Math.max(0, pausedUntilMillis - System.currentTimeMillis());
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized void onSuccess() {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    synchronized void onThrottled(String operation, long startNanos, Optional<Duration> retryAfter) {
+        retryAfter.ifPresent(delay -> pausedUntilMillis = Math.max(pausedUntilMillis, System.currentTimeMillis() + delay.toMillis()));
+        if (startNanos - lastDecreaseNanos > 0) {
+            limit = Math.max(1, limit / 2);
+            lastDecreaseNanos = System.nanoTime();
+            System.err.printf("Server throttled %s, reducing the number of concurrent API calls to %d%n", operation, (int) limit);
+        }
+    }
+
+}
@@ -2,13 +2,29 @@ package com.gradle.develocity.api.shared;
 
 import com.gradle.develocity.api.DevelocityApi;
 import com.gradle.develocity.api.client.ApiClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import picocli.CommandLine;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 
 public class GradleEnterpriseApiProvider {
+
+    private static final TimeValue IDLE_CONNECTION_TIMEOUT = TimeValue.ofSeconds(30);
+    static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
     @CommandLine.Option(
         names = "--server-url",
         description = "The address of the Develocity server",
@@ -25,16 +41,193 @@ public class GradleEnterpriseApiProvider {
     )
     String accessKeyFile;
 
+    @CommandLine.Option(
+        names = "--max-connections",
+        description = "The maximum number of connections kept open to the Develocity server (default: ${DEFAULT-VALUE})",
+        defaultValue = "20",
+        order = 100
+    )
+    int maxConnections;
+
+    @CommandLine.Option(
+        names = "--connect-timeout-secs",
+        description = "The maximum number of seconds to wait for a connection to the Develocity server to be established (default: ${DEFAULT-VALUE})",
+        defaultValue = "10",
+        order = 101
+    )
+    int connectTimeoutSecs;
+
+    @CommandLine.Option(
+        names = "--socket-timeout-secs",
+        description = "The maximum number of seconds to wait for data from the Develocity server, which must be longer than any --max-wait-secs (default: ${DEFAULT-VALUE})",
+        defaultValue = "60",
+        order = 102
+    )
+    int socketTimeoutSecs;
+
+    @CommandLine.Option(
+        names = "--compression",
+        description = "A boolean indicating whether compressed responses are requested from the Develocity server (default: ${DEFAULT-VALUE})",
+        defaultValue = "true",
+        arity = "1",
+        order = 103
+    )
+    boolean compression;
+
+    @CommandLine.Option(
+        names = "--max-retries",
+        description = "The maximum number of times an API call failing due to throttling or a transient error is retried (default: ${DEFAULT-VALUE})",
+        defaultValue = "3",
+        order = 104
+    )
+    int maxRetries;
+
+    @CommandLine.Option(
+        names = "--retry-delay-millis",
+        description = "The base delay before retrying a failed API call, which doubles with each retry (default: ${DEFAULT-VALUE})",
+        defaultValue = "500",
+        order = 105
+    )
+    int retryDelayMillis;
+
+    @CommandLine.Option(
+        names = "--circuit-breaker-failures",
+        description = "The number of consecutive failed API calls after which API calls are paused (default: ${DEFAULT-VALUE})",
+        defaultValue = "10",
+        order = 106
+    )
+    int circuitBreakerFailures;
+
+    @CommandLine.Option(
+        names = "--circuit-breaker-secs",
+        description = "The number of seconds for which API calls are paused after too many consecutive failures (default: ${DEFAULT-VALUE})",
+        defaultValue = "30",
+        order = 107
+    )
+    int circuitBreakerSecs;
+
+    @CommandLine.Option(
+        names = "--metrics-port",
+        description = "The local port on which metrics are served in the Prometheus text format, at /metrics (if omitted, metrics are not served)",
+        defaultValue = CommandLine.Option.NULL_VALUE,
+        order = 110
+    )
+    Integer metricsPort;
+
+    @CommandLine.Option(
+        names = "--metrics-file",
+        description = "The path to a file to which metrics are periodically written in the Prometheus text format (if omitted, metrics are not written)",
+        defaultValue = CommandLine.Option.NULL_VALUE,
+        order = 111
+    )
+    Path metricsFile;
+
+    @CommandLine.Option(
+        names = "--metrics-interval-secs",
+        description = "The number of seconds between writes to --metrics-file (default: ${DEFAULT-VALUE})",
+        defaultValue = "15",
+        order = 112
+    )
+    int metricsIntervalSecs;
+
+    private Metrics metrics;
+    private String accessKey;
+    private CloseableHttpClient httpClient;
+    private ApiCallInterceptor apiCallInterceptor;
+    private DevelocityApi api;
+
+    // All API calls of a sample share a single API client, and with it a single connection pool
     public DevelocityApi create() throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(accessKeyFile));
-        String accessKey = reader.readLine();
-        reader.close();
+        if (api == null) {
+            ApiClient apiClient = new ApiClient(getHttpClient());
+            apiClient.setBasePath(getServerUrl());
+            apiClient.setBearerToken(getAccessKey());
+
+            // each retried attempt passes through the circuit breaker and the concurrency limit again
+            apiCallInterceptor = ApiCallInterceptor.chain(Arrays.asList(
+                new RetryingApiCallInterceptor(maxRetries, Duration.ofMillis(retryDelayMillis), MAX_RETRY_DELAY, apiClient.getObjectMapper()),
+                new CircuitBreaker(circuitBreakerFailures, Duration.ofSeconds(circuitBreakerSecs), apiClient.getObjectMapper()),
+                // up to one call per connection, fewer while the server is throttling calls
+                new AdaptiveConcurrencyLimiter(maxConnections, apiClient.getObjectMapper()),
+                // measures each attempt, without the time spent waiting for the concurrency limit
+                new MetricsApiCallInterceptor(getMetrics())
+            ));
+            api = new InterceptingDevelocityApi(apiClient, apiCallInterceptor);
+        }
+        return api;
+    }
 
-        ApiClient apiClient = new ApiClient();
-        apiClient.setBasePath(getServerUrl());
-        apiClient.setBearerToken(accessKey);
+    // The interceptor applied to all calls of the API created by this provider, for API calls made without it
+    public ApiCallInterceptor getApiCallInterceptor() throws IOException {
+        create();
+        return apiCallInterceptor;
+    }
+
+    // The metrics recorded by a sample, served or written as requested once they are first used
+    public Metrics getMetrics() throws IOException {
+        if (metrics == null) {
+            metrics = new Metrics();
+            if (metricsPort != null) {
+                MetricsExporter.serve(metrics, metricsPort);
+            }
+            if (metricsFile != null) {
+                MetricsExporter.writePeriodically(metrics, metricsFile, Duration.ofSeconds(metricsIntervalSecs));
+            }
+        }
+        return metrics;
+    }
+
+    public String getAccessKey() throws IOException {
+        if (accessKey == null) {
+            BufferedReader reader = new BufferedReader(new FileReader(accessKeyFile));
+            accessKey = reader.readLine();
+            reader.close();
+        }
+        return accessKey;
+    }
+
+    // The HTTP client used by the generated API client, for requests that need to read responses directly
+    public CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            // all connections go to the same server, so that the pool is shared by a single route
+            PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofSeconds(connectTimeoutSecs))
+                    .setSocketTimeout(Timeout.ofSeconds(socketTimeoutSecs))
+                    .setValidateAfterInactivity(IDLE_CONNECTION_TIMEOUT)
+                    .build())
+                .build();
+
+            // connections are kept alive for as long as the server allows, and responses are decompressed transparently
+            HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                    .setResponseTimeout(Timeout.ofSeconds(socketTimeoutSecs))
+                    .setContentCompressionEnabled(compression)
+                    .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT);
+            if (Jfr.isAvailable()) {
+                // outermost, so that the events cover retries within the client and see decompressed responses
+                httpClientBuilder.addExecInterceptorFirst("jfr", new JfrExecChainHandler());
+            }
+            httpClient = httpClientBuilder.build();
+        }
+        return httpClient;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public Duration getConnectTimeout() {
+        return Duration.ofSeconds(connectTimeoutSecs);
+    }
 
-        return new DevelocityApi(apiClient);
+    public Duration getSocketTimeout() {
+        return Duration.ofSeconds(socketTimeoutSecs);
     }
 
     public String getServerUrl() {
@@ -0,0 +1,66 @@
+package com.gradle.develocity.api.shared;
+
+import com.gradle.develocity.api.DevelocityApi;
+import com.gradle.develocity.api.client.ApiClient;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.BuildsQuery;
+import com.gradle.develocity.api.model.GradleAttributes;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.MavenAttributes;
+import com.gradle.develocity.api.model.MavenBuildCachePerformance;
+import com.gradle.develocity.api.model.TestCasesQuery;
+import com.gradle.develocity.api.model.TestContainersQuery;
+import com.gradle.develocity.api.model.TestsResponse;
+
+import java.util.List;
+
+/**
+ * Passes the calls made by the samples through an {@link ApiCallInterceptor}.
+ */
+final class InterceptingDevelocityApi extends DevelocityApi {
+
+    private final ApiCallInterceptor interceptor;
+
+    InterceptingDevelocityApi(ApiClient apiClient, ApiCallInterceptor interceptor) {
+        super(apiClient);
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public List<Build> getBuilds(BuildsQuery buildsQuery) throws ApiException {
+        return interceptor.intercept("getBuilds", () -> super.getBuilds(buildsQuery));
+    }
+
+    @Override
+    public GradleAttributes getGradleAttributes(String id, BuildModelQuery buildModelQuery) throws ApiException {
+        return interceptor.intercept("getGradleAttributes", () -> super.getGradleAttributes(id, buildModelQuery));
+    }
+
+    @Override
+    public GradleBuildCachePerformance getGradleBuildCachePerformance(String id, BuildModelQuery buildModelQuery) throws ApiException {
+        return interceptor.intercept("getGradleBuildCachePerformance", () -> super.getGradleBuildCachePerformance(id, buildModelQuery));
+    }
+
+    @Override
+    public MavenAttributes getMavenAttributes(String id, BuildModelQuery buildModelQuery) throws ApiException {
+        return interceptor.intercept("getMavenAttributes", () -> super.getMavenAttributes(id, buildModelQuery));
+    }
+
+    @Override
+    public MavenBuildCachePerformance getMavenBuildCachePerformance(String id, BuildModelQuery buildModelQuery) throws ApiException {
+        return interceptor.intercept("getMavenBuildCachePerformance", () -> super.getMavenBuildCachePerformance(id, buildModelQuery));
+    }
+
+    @Override
+    public TestsResponse getTestContainers(TestContainersQuery testContainersQuery) throws ApiException {
+        return interceptor.intercept("getTestContainers", () -> super.getTestContainers(testContainersQuery));
+    }
+
+    @Override
+    public TestsResponse getTestCases(TestCasesQuery testCasesQuery) throws ApiException {
+        return interceptor.intercept("getTestCases", () -> super.getTestCases(testCasesQuery));
+    }
+
+}
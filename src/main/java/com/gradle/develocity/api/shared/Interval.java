@@ -1,12 +1,12 @@
-package com.gradle.develocity.api.tests;
+package com.gradle.develocity.api.shared;
 
 import java.time.OffsetDateTime;
 
-final class Interval {
+public final class Interval {
     private final OffsetDateTime start;
     private final OffsetDateTime end;
 
-    Interval(OffsetDateTime start, OffsetDateTime end) {
+    public Interval(OffsetDateTime start, OffsetDateTime end) {
         this.start = start;
         this.end = end;
     }
@@ -0,0 +1,27 @@
+package com.gradle.develocity.api.shared;
+
+/**
+ * Java Flight Recorder is missing from Java 8 before 8u262 and from some other JVMs, such as OpenJ9.
+ * Its events are only created once it is known to be available, so that their classes are not loaded otherwise.
+ */
+final class Jfr {
+
+    private static final boolean AVAILABLE = isEventClassPresent();
+
+    private Jfr() {
+    }
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean isEventClassPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Jfr.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
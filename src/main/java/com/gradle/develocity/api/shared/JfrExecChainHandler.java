@@ -0,0 +1,106 @@
+package com.gradle.develocity.api.shared;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Emits an {@link ApiCallEvent} for each request made by the HTTP client, including those made without the generated API client.
+ * <p>
+ * When no recording enables the event, requests pass through without any further work.
+ */
+final class JfrExecChainHandler implements ExecChainHandler {
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain) throws IOException, HttpException {
+        ApiCallEvent event = new ApiCallEvent();
+        if (!event.isEnabled()) {
+            return chain.proceed(request, scope);
+        }
+
+        event.begin();
+        event.method = request.getMethod();
+        event.setPath(request.getPath());
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (Exception e) {
+            event.commit();
+            throw e;
+        }
+
+        event.status = response.getCode();
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            event.commit();
+        } else {
+            response.setEntity(new CountingEntity(entity, event));
+        }
+        return response;
+    }
+
+    // The event is committed once the response body has been read to its end or closed, whichever happens first
+    private static final class CountingEntity extends HttpEntityWrapper {
+
+        private final ApiCallEvent event;
+        private boolean committed;
+
+        private CountingEntity(HttpEntity entity, ApiCallEvent event) {
+            super(entity);
+            this.event = event;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    count(b < 0 ? -1 : 1);
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int bytesRead = super.read(buffer, offset, length);
+                    count(bytesRead);
+                    return bytesRead;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        commit();
+                    }
+                }
+            };
+        }
+
+        private void count(int bytesRead) {
+            if (bytesRead < 0) {
+                commit();
+            } else {
+                event.bytes += bytesRead;
+            }
+        }
+
+        private void commit() {
+            if (!committed) {
+                committed = true;
+                event.commit();
+            }
+        }
+
+    }
+
+}
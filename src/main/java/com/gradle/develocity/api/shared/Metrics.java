@@ -0,0 +1,164 @@
+package com.gradle.develocity.api.shared;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Counters, gauges and histograms recorded while the samples run, written in the Prometheus text format.
+ * <p>
+ * Recording only adds to striped adders, so that concurrent workers do not contend on a single value.
+ */
+public final class Metrics {
+
+    // in seconds, from a fast API call to a long-polling builds query
+    public static final double[] LATENCY_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+    // in seconds, from a build processed as soon as it became available to one processed hours later
+    public static final double[] LAG_BUCKETS = {1, 5, 15, 30, 60, 300, 900, 1800, 3600, 4 * 3600, 24 * 3600};
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").series.computeIfAbsent(labelsText(labels), __ -> new Counter());
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return (Histogram) family(name, help, "histogram").series.computeIfAbsent(labelsText(labels), __ -> new Histogram(buckets));
+    }
+
+    // The value is read whenever the metrics are written, e.g. the current size of a queue
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").series.put(labelsText(labels), value);
+    }
+
+    public void writePrometheus(Writer writer) throws IOException {
+        for (Family family : new TreeMap<>(families).values()) {
+            writer.write("# HELP " + family.name + " " + family.help + "\n");
+            writer.write("# TYPE " + family.name + " " + family.type + "\n");
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet()) {
+                if (series.getValue() instanceof Counter) {
+                    writeSample(writer, family.name, series.getKey(), "", ((Counter) series.getValue()).get());
+                } else if (series.getValue() instanceof DoubleSupplier) {
+                    writeSample(writer, family.name, series.getKey(), "", ((DoubleSupplier) series.getValue()).getAsDouble());
+                } else {
+                    ((Histogram) series.getValue()).write(writer, family.name, series.getKey());
+                }
+            }
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, __ -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    // labels are given as alternating names and values
+    private static String labelsText(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as pairs of names and values");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return text.toString();
+    }
+
+    private static void writeSample(Writer writer, String name, String labels, String extraLabel, double value) throws IOException {
+        String allLabels = labels.isEmpty() ? extraLabel : extraLabel.isEmpty() ? labels : labels + "," + extraLabel;
+        writer.write(name + (allLabels.isEmpty() ? "" : "{" + allLabels + "}") + " " + formatValue(value) + "\n");
+    }
+
+    private static String formatValue(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        return value == Math.rint(value) ? String.valueOf((long) value) : Double.toString(value);
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final ConcurrentMap<String, Object> series = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Histogram {
+        private final double[] buckets;
+        private final LongAdder[] bucketCounts;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(double[] buckets) {
+            this.buckets = buckets;
+            this.bucketCounts = new LongAdder[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bucketCounts[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            // only the smallest matching bucket is counted, the cumulative counts are computed when written
+            for (int i = 0; i < buckets.length; i++) {
+                if (value <= buckets[i]) {
+                    bucketCounts[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1e9);
+        }
+
+        private void write(Writer writer, String name, String labels) throws IOException {
+            long cumulativeCount = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulativeCount += bucketCounts[i].sum();
+                writeSample(writer, name + "_bucket", labels, "le=\"" + formatValue(buckets[i]) + "\"", cumulativeCount);
+            }
+            // observations made while writing may already be counted in the buckets
+            long totalCount = Math.max(cumulativeCount, count.sum());
+            writeSample(writer, name + "_bucket", labels, "le=\"+Inf\"", totalCount);
+            writeSample(writer, name + "_sum", labels, "", sum.sum());
+            writeSample(writer, name + "_count", labels, "", totalCount);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.gradle.develocity.api.shared;
+
+import com.gradle.develocity.api.client.ApiException;
+
+/**
+ * Records the latency of each API call by operation, and the calls that failed by status code.
+ */
+final class MetricsApiCallInterceptor implements ApiCallInterceptor {
+
+    private final Metrics metrics;
+
+    MetricsApiCallInterceptor(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public <T> T intercept(String operation, ApiCall<T> call) throws ApiException {
+        long startNanos = System.nanoTime();
+        try {
+            return call.execute();
+        } catch (ApiException e) {
+            // a code of 0 means that no response was received
+            metrics.counter("develocity_api_errors_total", "API calls that failed", "operation", operation, "code", String.valueOf(e.getCode())).increment();
+            throw e;
+        } finally {
+            metrics.histogram("develocity_api_call_seconds", "Latency of API calls", Metrics.LATENCY_BUCKETS, "operation", operation).observeNanos(System.nanoTime() - startNanos);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.gradle.develocity.api.shared;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Makes the metrics available in the Prometheus text format, either served on a local port or written to a file.
+ */
+final class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private MetricsExporter() {
+    }
+
+    // Only reachable from the local machine, e.g. by a Prometheus agent scraping http://localhost:<port>/metrics
+    static void serve(Metrics metrics, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = toPrometheusText(metrics).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(MetricsExporter::daemonThread));
+        server.start();
+    }
+
+    // The file is replaced atomically, so that readers never see a partially written snapshot
+    static void writePeriodically(Metrics metrics, Path file, Duration interval) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(MetricsExporter::daemonThread);
+        scheduler.scheduleAtFixedRate(() -> write(metrics, file), interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        // the last snapshot covers everything recorded until the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> write(metrics, file)));
+    }
+
+    private static void write(Metrics metrics, Path file) {
+        try {
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tempFile, toPrometheusText(metrics).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            // a failed snapshot is reported, the next one is written as scheduled
+            System.err.println("Failed to write metrics to " + file + ": " + e);
+        }
+    }
+
+    private static String toPrometheusText(Metrics metrics) throws IOException {
+        Writer writer = new StringWriter();
+        metrics.writePrometheus(writer);
+        return writer.toString();
+    }
+
+    private static Thread daemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "metrics-exporter");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.gradle.develocity.api.shared;
+
+/**
+ * A stage of processing builds, recorded as a {@link ProcessingStageEvent} when Java Flight Recorder is available.
+ * <p>
+ * On JVMs without Java Flight Recorder, stages are not recorded, and the event class is never loaded.
+ */
+public interface ProcessingStage {
+
+    String PAGE_FETCH = "page fetch";
+    String MODEL_FETCH = "model fetch";
+    String COMPUTE = "compute";
+    String REPORT = "report";
+
+    ProcessingStage NOT_RECORDED = () -> {
+    };
+
+    static ProcessingStage start(String stage, String buildId) {
+        return start(stage, buildId, null);
+    }
+
+    static ProcessingStage start(String stage, String buildId, String detail) {
+        return Jfr.isAvailable() ? ProcessingStageEvent.start(stage, buildId, detail) : NOT_RECORDED;
+    }
+
+    /**
+     * Ends the stage.
+     */
+    void commit();
+
+}
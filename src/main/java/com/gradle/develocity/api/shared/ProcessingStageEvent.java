@@ -0,0 +1,43 @@
+package com.gradle.develocity.api.shared;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A stage of processing builds, such as fetching a page of builds or computing the results for a build.
+ * <p>
+ * Events are only populated while a recording is enabling them, and are committed by the caller once the stage completes.
+ * Callers start stages through {@link ProcessingStage}, so that this class is only loaded when Java Flight Recorder is available.
+ */
+@Name("com.gradle.develocity.api.ProcessingStage")
+@Label("Processing Stage")
+@Category("Develocity API Samples")
+final class ProcessingStageEvent extends jdk.jfr.Event implements ProcessingStage {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Build ID")
+    String buildId;
+
+    @Label("Detail")
+    @Description("Further details of the stage, such as the name of the fetched model")
+    String detail;
+
+    private ProcessingStageEvent() {
+    }
+
+    static ProcessingStageEvent start(String stage, String buildId, String detail) {
+        ProcessingStageEvent event = new ProcessingStageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage;
+            event.buildId = buildId;
+            event.detail = detail;
+            event.begin();
+        }
+        return event;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries API calls that failed due to throttling or a transient error, waiting a jittered, exponentially growing delay
+ * between attempts. Calls that failed permanently, e.g. because the build was deleted, are never retried.
+ */
+public final class RetryingApiCallInterceptor implements ApiCallInterceptor {
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final ObjectMapper objectMapper;
+
+    public RetryingApiCallInterceptor(int maxRetries, Duration baseDelay, Duration maxDelay, ObjectMapper objectMapper) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T intercept(String operation, ApiCall<T> call) throws ApiException {
+        for (int retry = 0; ; retry++) {
+            try {
+                return call.execute();
+            } catch (ApiException e) {
+                if (retry >= maxRetries || ApiErrorClassifier.classify(e, objectMapper) == ApiErrorType.PERMANENT) {
+                    throw e;
+                }
+                sleep(delay(retry, e, baseDelay, maxDelay));
+            }
+        }
+    }
+
+    // "full jitter": a random delay up to the exponential backoff, so that concurrent callers do not retry in lockstep
+    static Duration delay(int retry, ApiException apiException, Duration baseDelay, Duration maxDelay) {
+        long backoffMillis = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(retry, 30));
+        Duration delay = Duration.ofMillis(ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+        return ApiErrorClassifier.retryAfter(apiException)
+            .filter(retryAfter -> retryAfter.compareTo(delay) > 0)
+            .orElse(delay);
+    }
+
+    private static void sleep(Duration delay) throws ApiException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(e);
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.gradle.develocity.api.shared;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class WorkerExecutors {
+
+    // compiled from src/java21/java, and therefore loaded reflectively
+    private static final String VIRTUAL_THREAD_EXECUTOR_CLASS_NAME = "com.gradle.develocity.api.shared.BoundedVirtualThreadExecutor";
+
+    private WorkerExecutors() {
+    }
+
+    /**
+     * Creates an executor running at most the given number of tasks at the same time,
+     * either on a fixed pool of platform threads, or each on its own virtual thread.
+     */
+    public static ExecutorService create(boolean virtualThreads, int maxConcurrentTasks) {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(maxConcurrentTasks);
+        }
+        try {
+            return (ExecutorService) Class.forName(VIRTUAL_THREAD_EXECUTOR_CLASS_NAME)
+                .getDeclaredConstructor(int.class)
+                .newInstance(maxConcurrentTasks);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("--virtual-threads requires Java 21 or later, and a build of the samples that includes it", e);
+        }
+    }
+
+}
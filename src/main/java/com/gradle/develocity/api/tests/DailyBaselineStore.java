@@ -0,0 +1,137 @@
+package com.gradle.develocity.api.tests;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Stores the names of the test containers that were unstable on each day, so that a complete day is only requested once.
+ * <p>
+ * Each day is kept in its own gzipped file, replaced atomically. Days are UTC days.
+ * The names are sorted and front-coded: each line holds the length of the prefix shared with the previous name, a colon, and the rest of the name.
+ * Names read back are interned, as the same names are stored for most days.
+ */
+final class DailyBaselineStore {
+
+    private static final String FILE_PREFIX = "unstable-containers-";
+    private static final String FILE_SUFFIX = ".fc.gz";
+    // days stored by earlier versions, one plain name per line, are no longer read but are still deleted
+    private static final String LEGACY_FILE_SUFFIX = ".txt.gz";
+
+    private final Path directory;
+
+    DailyBaselineStore(Path directory) {
+        this.directory = directory;
+    }
+
+    Optional<Set<String>> read(LocalDate day) {
+        Path file = file(day);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            Set<String> containerNames = new HashSet<>();
+            String previousName = "";
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(':');
+                String name = (previousName.substring(0, Integer.parseInt(line.substring(0, separator))) + line.substring(separator + 1)).intern();
+                containerNames.add(name);
+                previousName = name;
+            }
+            return Optional.of(containerNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void write(LocalDate day, Set<String> containerNames) {
+        Path file = file(day);
+        try {
+            Files.createDirectories(directory);
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tempFile)), StandardCharsets.UTF_8))) {
+                new TreeSet<>(containerNames).forEach(new FrontCodingWriter(writer));
+            }
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void deleteBefore(LocalDate oldestDay) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*{" + FILE_SUFFIX + "," + LEGACY_FILE_SUFFIX + "}")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                int suffixLength = fileName.endsWith(FILE_SUFFIX) ? FILE_SUFFIX.length() : LEGACY_FILE_SUFFIX.length();
+                LocalDate day;
+                try {
+                    day = LocalDate.parse(fileName.substring(FILE_PREFIX.length(), fileName.length() - suffixLength));
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                if (day.isBefore(oldestDay)) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(LocalDate day) {
+        return directory.resolve(FILE_PREFIX + day + FILE_SUFFIX);
+    }
+
+    private static final class FrontCodingWriter implements Consumer<String> {
+
+        private final Writer writer;
+        private String previousName = "";
+
+        private FrontCodingWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(String name) {
+            int sharedLength = 0;
+            int maxSharedLength = Math.min(previousName.length(), name.length());
+            while (sharedLength < maxSharedLength && previousName.charAt(sharedLength) == name.charAt(sharedLength)) {
+                sharedLength++;
+            }
+            try {
+                writer.write(Integer.toString(sharedLength));
+                writer.write(':');
+                writer.write(name, sharedLength, name.length() - sharedLength);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            previousName = name;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.gradle.develocity.api.tests;
 
 import com.gradle.develocity.api.model.TestOrContainer;
+import com.gradle.develocity.api.shared.Interval;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -82,7 +83,11 @@ final class GitHubCliReporter implements UnstableTestContainersReporter {
         sb.append("[View in Tests dashboard.](").append(getTestsDashboardLink(serverUrl, now, container)).append(")\n");
         sb.append("\n");
 
-        if (!cases.isEmpty()) {
+        if (containerWithCases.getCasesFailure() != null) {
+            sb.append("### Unstable cases\n");
+            sb.append("Could not be determined: ").append(containerWithCases.getCasesFailure()).append("\n");
+            sb.append("\n");
+        } else if (!cases.isEmpty()) {
             sb.append("### Unstable cases\n");
             cases.forEach(testCase -> sb.append("* `").append(testCase.getName()).append("` (").append(outcomeDistributionToDisplayString(testCase.getOutcomeDistribution())).append(")\n"));
             sb.append("\n");
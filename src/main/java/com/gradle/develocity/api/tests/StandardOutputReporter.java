@@ -30,6 +30,9 @@ final class StandardOutputReporter implements UnstableTestContainersReporter {
             System.out.println(toOutcomeDistribution(container));
             System.out.printf("\tView in Tests dashboard: %s%n", getTestsDashboardLink(serverUrl, now, container));
             System.out.println("\tUnstable test cases:");
+            if (containerWithCases.getCasesFailure() != null) {
+                System.out.printf("\t\tCould not be determined: %s%n", containerWithCases.getCasesFailure());
+            }
             cases.forEach(testCase -> System.out.printf("\t\t%s%n", toOutcomeDistribution(testCase)));
             System.out.println("\tWork units:");
             requireNonNull(container.getWorkUnits()).forEach(workUnit -> System.out.printf("\t\t%s%n", toDisplayName(workUnit)));
@@ -2,16 +2,29 @@ package com.gradle.develocity.api.tests;
 
 import com.gradle.develocity.api.model.TestOrContainer;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
 
 final class TestContainerWithCases {
 
     private final TestOrContainer container;
     private final List<TestOrContainer> cases;
+    @Nullable
+    private final String casesFailure;
 
     TestContainerWithCases(TestOrContainer container, List<TestOrContainer> cases) {
+        this(container, cases, null);
+    }
+
+    private TestContainerWithCases(TestOrContainer container, List<TestOrContainer> cases, @Nullable String casesFailure) {
         this.container = container;
         this.cases = cases;
+        this.casesFailure = casesFailure;
+    }
+
+    static TestContainerWithCases withFailedCases(TestOrContainer container, String casesFailure) {
+        return new TestContainerWithCases(container, Collections.emptyList(), casesFailure);
     }
 
     public TestOrContainer getContainer() {
@@ -21,4 +34,12 @@ final class TestContainerWithCases {
     public List<TestOrContainer> getCases() {
         return cases;
     }
+
+    /**
+     * The reason why the unstable test cases of the container could not be fetched, or {@code null} if they were.
+     */
+    @Nullable
+    public String getCasesFailure() {
+        return casesFailure;
+    }
 }
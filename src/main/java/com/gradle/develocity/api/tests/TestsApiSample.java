@@ -1,6 +1,9 @@
 package com.gradle.develocity.api.tests;
 
+import com.gradle.develocity.api.shared.BuildsQueryUtils;
 import com.gradle.develocity.api.shared.GradleEnterpriseApiProvider;
+import com.gradle.develocity.api.shared.Interval;
+import com.gradle.develocity.api.shared.WorkerExecutors;
 import com.gradle.develocity.api.DevelocityApi;
 import com.gradle.develocity.api.client.ApiException;
 import com.gradle.develocity.api.model.TestCasesQuery;
@@ -8,7 +11,6 @@ import com.gradle.develocity.api.model.TestContainersQuery;
 import com.gradle.develocity.api.model.TestIncludeFields;
 import com.gradle.develocity.api.model.TestOrContainer;
 import com.gradle.develocity.api.model.TestOutcome;
-import com.gradle.develocity.api.model.TestOutcomeDistribution;
 import com.gradle.develocity.api.model.TestsResponse;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
@@ -16,13 +18,21 @@ import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -43,12 +53,7 @@ public class TestsApiSample implements Callable<Integer> {
 
     private static final List<TestOutcome> UNSTABLE_OUTCOMES = Arrays.asList(TestOutcome.FAILED, TestOutcome.FLAKY);
     private static final List<TestIncludeFields> INCLUDE_BUILD_SCAN_IDS_AND_WORK_UNITS = Arrays.asList(TestIncludeFields.BUILD_SCAN_IDS, TestIncludeFields.WORK_UNITS);
-    private static final Comparator<TestOrContainer> UNSTABLE_TEST_COMPARATOR = Comparator.<TestOrContainer>comparingDouble(testOrContainer -> {
-            TestOutcomeDistribution outcomeDistribution = testOrContainer.getOutcomeDistribution();
-            return (double) (outcomeDistribution.getFailed() + outcomeDistribution.getFlaky()) / outcomeDistribution.getTotal();
-        })
-        .reversed()
-        .thenComparing(TestOrContainer::getName);
+    private static final String ALL_PROJECTS_BASELINE = "all-projects";
 
     @Mixin
     GradleEnterpriseApiProvider apiProvider;
@@ -77,6 +82,38 @@ public class TestsApiSample implements Callable<Integer> {
     @Nullable
     String githubRepoUrl;
 
+    @Option(
+        names = "--virtual-threads",
+        description = "A boolean indicating whether the test cases of each container are fetched on their own virtual thread, at most --concurrency at a time. Requires Java 21 or later (default: ${DEFAULT-VALUE})",
+        defaultValue = "false",
+        order = 4
+    )
+    boolean virtualThreads;
+
+    @Option(
+        names = "--concurrency",
+        description = "The maximum number of containers to fetch the unstable test cases of in parallel (default: ${DEFAULT-VALUE})",
+        defaultValue = "8",
+        order = 5
+    )
+    int concurrency;
+
+    @Option(
+        names = "--baseline-dir",
+        description = "The path to a directory in which the unstable test containers of each past day are stored, so that each day is only requested once (if omitted, the whole last week is requested on each run)",
+        defaultValue = Option.NULL_VALUE,
+        order = 6
+    )
+    Path baselineDir;
+
+    @Option(
+        names = "--top",
+        description = "The maximum number of most unstable test containers to report, and of unstable test cases to report for each of them. A value of 0 reports all of them (default: ${DEFAULT-VALUE})",
+        defaultValue = "0",
+        order = 7
+    )
+    int top;
+
     public static void main(String[] args) {
         System.exit(new CommandLine(new TestsApiSample()).execute(args));
     }
@@ -112,71 +149,123 @@ public class TestsApiSample implements Callable<Integer> {
         return 0;
     }
 
-    private Set<String> getUnstableTestContainersFromLastWeek(DevelocityApi api, OffsetDateTime now) throws ApiException {
+    private Set<String> getUnstableTestContainersFromLastWeek(DevelocityApi api, OffsetDateTime now) throws ApiException, IOException {
         Interval lastWeek = new Interval(now.minusDays(8), now.minusDays(1));
-        String buildsQuery = projectName == null ? BuildsQueryUtils.buildsBetween(lastWeek) : BuildsQueryUtils.and(BuildsQueryUtils.buildsBetween(lastWeek), BuildsQueryUtils.projectNameEquals(projectName));
+        Set<String> unstableContainerNames = baselineDir == null ? getUnstableTestContainers(api, lastWeek) : getUnstableTestContainersByDay(api, lastWeek);
+        System.out.printf("Found %d unstable test containers between %s and %s.%n", unstableContainerNames.size(), lastWeek.getStart(), lastWeek.getEnd());
+
+        return unstableContainerNames;
+    }
+
+    // Complete UTC days are requested once and stored, so that usually only the newest, partial day is requested.
+    // The oldest day is covered in full, which extends the interval by less than a day.
+    private Set<String> getUnstableTestContainersByDay(DevelocityApi api, Interval interval) throws ApiException, IOException {
+        DailyBaselineStore store = new DailyBaselineStore(baselineDir.resolve(projectName == null ? ALL_PROJECTS_BASELINE : URLEncoder.encode(projectName, "UTF-8")));
+        LocalDate oldestDay = interval.getStart().atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        LocalDate newestDay = interval.getEnd().atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+        store.deleteBefore(oldestDay);
+
+        Set<String> unstableContainerNames = new HashSet<>();
+        for (LocalDate day = oldestDay; day.isBefore(newestDay); day = day.plusDays(1)) {
+            Optional<Set<String>> storedContainerNames = store.read(day);
+            if (storedContainerNames.isPresent()) {
+                unstableContainerNames.addAll(storedContainerNames.get());
+            } else {
+                Set<String> dayContainerNames = getUnstableTestContainers(api, new Interval(startOf(day), startOf(day.plusDays(1))));
+                store.write(day, dayContainerNames);
+                unstableContainerNames.addAll(dayContainerNames);
+            }
+        }
+        unstableContainerNames.addAll(getUnstableTestContainers(api, new Interval(startOf(newestDay), interval.getEnd())));
+
+        return unstableContainerNames;
+    }
+
+    private Set<String> getUnstableTestContainers(DevelocityApi api, Interval interval) throws ApiException {
+        String buildsQuery = projectName == null ? BuildsQueryUtils.buildsBetween(interval) : BuildsQueryUtils.and(BuildsQueryUtils.buildsBetween(interval), BuildsQueryUtils.projectNameEquals(projectName));
 
         TestsResponse response = api.getTestContainers(new TestContainersQuery()
             .testOutcomes(UNSTABLE_OUTCOMES)
             .query(buildsQuery)
         );
 
-        Set<String> unstableContainerNames = response.getContent().stream()
-            .map(TestOrContainer::getName)
+        // the same names are found on most days, and are only retained once
+        return response.getContent().stream()
+            .map(container -> container.getName().intern())
             .collect(Collectors.toSet());
-        System.out.printf("Found %d unstable test containers between %s and %s.%n", unstableContainerNames.size(), lastWeek.getStart(), lastWeek.getEnd());
+    }
 
-        return unstableContainerNames;
+    private static OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC);
     }
 
     private List<TestOrContainer> getNewUnstableTestContainers(DevelocityApi api, Set<String> unstableTestContainersFromLastWeek, OffsetDateTime now) throws ApiException {
         OffsetDateTime oneDayAgo = now.minusDays(1);
-        String buildsQuery = projectName == null ? BuildsQueryUtils.buildsSince(oneDayAgo) : BuildsQueryUtils.and(BuildsQueryUtils.buildsSince(oneDayAgo), BuildsQueryUtils.projectNameEquals(projectName));
 
         List<TestOrContainer> unstableTestContainersFromYesterday = api.getTestContainers(new TestContainersQuery()
             .testOutcomes(UNSTABLE_OUTCOMES)
             .include(INCLUDE_BUILD_SCAN_IDS_AND_WORK_UNITS)
-            .query(buildsQuery)
+            .query(buildsSinceQuery(oneDayAgo))
         ).getContent();
 
         List<TestOrContainer> newUnstableTestContainers = unstableTestContainersFromYesterday.stream()
             .filter(container -> !unstableTestContainersFromLastWeek.contains(container.getName()))
-            .sorted(UNSTABLE_TEST_COMPARATOR)
             .collect(Collectors.toList());
 
         System.out.printf("Found %d test classes that became unstable since %s.%n", newUnstableTestContainers.size(), oneDayAgo);
+        if (top > 0 && newUnstableTestContainers.size() > top) {
+            System.out.printf("Reporting the %d most unstable of them.%n", top);
+        }
 
-        return newUnstableTestContainers;
+        // the test cases are only fetched for the containers that are reported
+        return UnstableTestRanking.top(newUnstableTestContainers, top);
     }
 
+    // The containers are requested concurrently, and collected in the order they were found in.
+    // A container whose cases cannot be fetched is still reported, so that a single failure does not abort the run.
+    // Test cases can only be queried per container, so all requests share the same builds query instead.
     private List<TestContainerWithCases> getUnstableTestCases(DevelocityApi api, List<TestOrContainer> newUnstableTestContainers, OffsetDateTime now) {
         System.out.println("Determining unstable test cases in the newly unstable test containers...");
-        return newUnstableTestContainers.stream()
-            .map(container -> {
-                try {
-                    return new TestContainerWithCases(
-                        container,
-                        getUnstableTestCases(api, container, now)
-                    );
-                } catch (ApiException e) {
-                    throw new RuntimeException(e);
-                }
-            })
-            .collect(Collectors.toList());
+        String buildsQuery = buildsSinceQuery(now.minusDays(1));
+        ExecutorService executor = WorkerExecutors.create(virtualThreads, concurrency);
+        try {
+            List<CompletableFuture<TestContainerWithCases>> containersWithCases = newUnstableTestContainers.stream()
+                .map(container -> CompletableFuture.supplyAsync(() -> getUnstableTestCases(api, container, buildsQuery), executor))
+                .collect(Collectors.toList());
+
+            List<TestContainerWithCases> unstableTestContainersWithCases = containersWithCases.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+            long failedContainers = unstableTestContainersWithCases.stream().filter(containerWithCases -> containerWithCases.getCasesFailure() != null).count();
+            if (failedContainers > 0) {
+                System.err.printf("Could not determine the unstable test cases of %d of %d test containers.%n", failedContainers, unstableTestContainersWithCases.size());
+            }
+            return unstableTestContainersWithCases;
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private List<TestOrContainer> getUnstableTestCases(DevelocityApi api, TestOrContainer testContainer, OffsetDateTime now) throws ApiException {
-        OffsetDateTime oneDayAgo = now.minusDays(1);
-        String buildsQuery = projectName == null ? BuildsQueryUtils.buildsSince(oneDayAgo) : BuildsQueryUtils.and(BuildsQueryUtils.buildsSince(oneDayAgo), BuildsQueryUtils.projectNameEquals(projectName));
+    private TestContainerWithCases getUnstableTestCases(DevelocityApi api, TestOrContainer container, String buildsQuery) {
+        try {
+            return new TestContainerWithCases(container, getUnstableTestCasesOf(api, container, buildsQuery));
+        } catch (ApiException e) {
+            System.err.printf("Failed to fetch the unstable test cases of %s: %s%n", container.getName(), e.getMessage());
+            return TestContainerWithCases.withFailedCases(container, e.getCode() == 0 ? String.valueOf(e.getMessage()) : "HTTP " + e.getCode());
+        }
+    }
 
-        return api.getTestCases(new TestCasesQuery()
+    private List<TestOrContainer> getUnstableTestCasesOf(DevelocityApi api, TestOrContainer testContainer, String buildsQuery) throws ApiException {
+        return UnstableTestRanking.top(api.getTestCases(new TestCasesQuery()
                 .container(testContainer.getName())
                 .testOutcomes(UNSTABLE_OUTCOMES)
                 .query(buildsQuery)
-            ).getContent()
-            .stream()
-            .sorted(UNSTABLE_TEST_COMPARATOR)
-            .collect(Collectors.toList());
+            ).getContent(), top);
+    }
+
+    private String buildsSinceQuery(OffsetDateTime since) {
+        return projectName == null ? BuildsQueryUtils.buildsSince(since) : BuildsQueryUtils.and(BuildsQueryUtils.buildsSince(since), BuildsQueryUtils.projectNameEquals(projectName));
     }
 
 }
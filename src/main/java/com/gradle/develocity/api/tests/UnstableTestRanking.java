@@ -0,0 +1,69 @@
+package com.gradle.develocity.api.tests;
+
+import com.gradle.develocity.api.model.TestOrContainer;
+import com.gradle.develocity.api.model.TestOutcomeDistribution;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks tests or containers by their share of failed and flaky outcomes, most unstable first, then by name.
+ * <p>
+ * The share of unstable outcomes is computed once for each element rather than on each comparison.
+ * When only the top elements are needed, they are selected with a heap of that size, taking O(n log k) instead of sorting all elements.
+ */
+final class UnstableTestRanking {
+
+    private static final Comparator<Ranked> RANKING_ORDER = Comparator.<Ranked>comparingDouble(ranked -> ranked.unstableShare)
+        .reversed()
+        .thenComparing(ranked -> ranked.testOrContainer.getName());
+
+    /**
+     * The ranking order, computing the share of unstable outcomes on each comparison.
+     */
+    static final Comparator<TestOrContainer> ORDER = Comparator.comparing(Ranked::new, RANKING_ORDER);
+
+    private UnstableTestRanking() {
+    }
+
+    /**
+     * Returns the {@code limit} most unstable of the given tests or containers, or all of them if {@code limit} is 0.
+     */
+    static List<TestOrContainer> top(Collection<TestOrContainer> testsOrContainers, int limit) {
+        List<Ranked> ranked;
+        if (limit <= 0 || limit >= testsOrContainers.size()) {
+            ranked = testsOrContainers.stream().map(Ranked::new).collect(Collectors.toList());
+        } else {
+            // the head of the heap is the least unstable of the elements selected so far
+            PriorityQueue<Ranked> selected = new PriorityQueue<>(limit, RANKING_ORDER.reversed());
+            for (TestOrContainer testOrContainer : testsOrContainers) {
+                Ranked candidate = new Ranked(testOrContainer);
+                if (selected.size() < limit) {
+                    selected.add(candidate);
+                } else if (RANKING_ORDER.compare(candidate, selected.peek()) < 0) {
+                    selected.poll();
+                    selected.add(candidate);
+                }
+            }
+            ranked = new ArrayList<>(selected);
+        }
+        ranked.sort(RANKING_ORDER);
+        return ranked.stream().map(r -> r.testOrContainer).collect(Collectors.toList());
+    }
+
+    private static final class Ranked {
+        private final TestOrContainer testOrContainer;
+        private final double unstableShare;
+
+        private Ranked(TestOrContainer testOrContainer) {
+            TestOutcomeDistribution outcomeDistribution = testOrContainer.getOutcomeDistribution();
+            this.testOrContainer = testOrContainer;
+            this.unstableShare = (double) (outcomeDistribution.getFailed() + outcomeDistribution.getFlaky()) / outcomeDistribution.getTotal();
+        }
+    }
+
+}
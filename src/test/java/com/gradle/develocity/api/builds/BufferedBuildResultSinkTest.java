@@ -0,0 +1,73 @@
+package com.gradle.develocity.api.builds;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BufferedBuildResultSinkTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static final BuildResult RESULT = new BuildResult(
+        "abc123",
+        URI.create("https://develocity.example.com/s/abc123"),
+        "gradle",
+        "my \"quoted\", project",
+        Instant.parse("2024-01-01T10:00:00Z"),
+        12345L,
+        "jdoe",
+        new BigDecimal("42.00"),
+        new BigDecimal("37.50")
+    );
+
+    private final StringWriter output = new StringWriter();
+
+    @Test
+    @DisplayName("writes one JSON object per line")
+    void testWritesNdjson() {
+        // when
+        write(OutputFormat.NDJSON);
+
+        // then
+        assertEquals("{\"buildId\":\"abc123\",\"buildScanUrl\":\"https://develocity.example.com/s/abc123\",\"buildToolType\":\"gradle\"," +
+            "\"projectName\":\"my \\\"quoted\\\", project\",\"availableAt\":\"2024-01-01T10:00:00Z\",\"buildDurationMs\":12345,\"username\":\"jdoe\"," +
+            "\"cacheHitPercentage\":42.00,\"avoidanceSavingsRatioPercentage\":37.50}\n", output.toString());
+    }
+
+    @Test
+    @DisplayName("writes a header and one quoted row per build")
+    void testWritesCsv() {
+        // when
+        write(OutputFormat.CSV);
+
+        // then
+        assertEquals("buildId,buildScanUrl,buildToolType,projectName,availableAt,buildDurationMs,username,cacheHitPercentage,avoidanceSavingsRatioPercentage" + NL +
+            "abc123,https://develocity.example.com/s/abc123,gradle,\"my \"\"quoted\"\", project\",2024-01-01T10:00:00Z,12345,jdoe,42.00,37.50" + NL, output.toString());
+    }
+
+    @Test
+    @DisplayName("writes the human-readable summary of each build")
+    void testWritesText() {
+        // when
+        write(OutputFormat.TEXT);
+
+        // then
+        assertEquals("Build Scan | https://develocity.example.com/s/abc123 | Project: my \"quoted\", project | 🗓  2024-01-01T10:00:00Z | ⏱  12345 ms\t| 👤 jdoe" + NL +
+            " - \tCache hit percentage: 42.00%" + NL +
+            " - \tAvoidance savings ratio: 37.50%" + NL + NL, output.toString());
+    }
+
+    private void write(OutputFormat format) {
+        BufferedBuildResultSink sink = new BufferedBuildResultSink(format, output, Duration.ofMinutes(1));
+        sink.write(RESULT);
+        sink.close();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.DevelocityApi;
+import com.gradle.develocity.api.client.ApiClient;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildAttributesEnvironment;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.GradleAttributes;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceAvoidanceSavingsSummary;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceTaskExecutionEntry.AvoidanceOutcomeEnum;
+import com.gradle.develocity.api.shared.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BuildCacheBuildProcessorTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("computes the cache hit percentage rounded to a whole percentage")
+    void testCacheHitPercentage() {
+        // given
+        GradleBuildCachePerformance model = new GradleBuildCachePerformance().taskExecution(tasks(
+            AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE,
+            AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE,
+            AvoidanceOutcomeEnum.AVOIDED_UP_TO_DATE,
+            AvoidanceOutcomeEnum.EXECUTED_CACHEABLE,
+            AvoidanceOutcomeEnum.EXECUTED_NOT_CACHEABLE,
+            AvoidanceOutcomeEnum.LIFECYCLE
+        ));
+
+        // expect
+        assertEquals("33.00", BuildCacheBuildProcessor.computeCacheHitPercentage(model).toString());
+    }
+
+    @Test
+    @DisplayName("rounds the cache hit percentage half up")
+    void testCacheHitPercentageRounding() {
+        // given
+        GradleBuildCachePerformance oneOfEight = new GradleBuildCachePerformance().taskExecution(tasks(
+            AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE,
+            AvoidanceOutcomeEnum.EXECUTED_CACHEABLE, AvoidanceOutcomeEnum.EXECUTED_CACHEABLE, AvoidanceOutcomeEnum.EXECUTED_CACHEABLE,
+            AvoidanceOutcomeEnum.EXECUTED_CACHEABLE, AvoidanceOutcomeEnum.EXECUTED_CACHEABLE, AvoidanceOutcomeEnum.EXECUTED_CACHEABLE,
+            AvoidanceOutcomeEnum.EXECUTED_CACHEABLE
+        ));
+        GradleBuildCachePerformance twoOfThree = new GradleBuildCachePerformance().taskExecution(tasks(
+            AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE,
+            AvoidanceOutcomeEnum.AVOIDED_FROM_REMOTE_CACHE,
+            AvoidanceOutcomeEnum.EXECUTED_CACHEABLE
+        ));
+
+        // expect
+        assertEquals("13.00", BuildCacheBuildProcessor.computeCacheHitPercentage(oneOfEight).toString());
+        assertEquals("67.00", BuildCacheBuildProcessor.computeCacheHitPercentage(twoOfThree).toString());
+    }
+
+    @Test
+    @DisplayName("computes a cache hit percentage of zero for builds without tasks")
+    void testCacheHitPercentageWithoutTasks() {
+        // given
+        GradleBuildCachePerformance model = new GradleBuildCachePerformance().taskExecution(emptyList());
+
+        // expect
+        assertEquals("0", BuildCacheBuildProcessor.computeCacheHitPercentage(model).toString());
+    }
+
+    @Test
+    @DisplayName("fetches and reports a build whose cached model cannot be read")
+    void testCorruptCachedModel() throws IOException {
+        // given
+        Path corruptEntry = cacheDir.resolve("gradle-attributes").resolve("build-1.json.gz");
+        Files.createDirectories(corruptEntry.getParent());
+        Files.write(corruptEntry, "not gzipped JSON".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger attributesRequests = new AtomicInteger();
+        DevelocityApi api = new DevelocityApi() {
+            @Override
+            public ApiClient getApiClient() {
+                return new ApiClient().setBasePath("https://develocity.example.com");
+            }
+
+            @Override
+            public GradleAttributes getGradleAttributes(String id, BuildModelQuery buildModelQuery) {
+                attributesRequests.incrementAndGet();
+                return new GradleAttributes().rootProjectName("my-project").environment(new BuildAttributesEnvironment().username("developer"));
+            }
+
+            @Override
+            public GradleBuildCachePerformance getGradleBuildCachePerformance(String id, BuildModelQuery buildModelQuery) {
+                return new GradleBuildCachePerformance()
+                    .taskExecution(tasks(AvoidanceOutcomeEnum.AVOIDED_FROM_LOCAL_CACHE, AvoidanceOutcomeEnum.EXECUTED_CACHEABLE))
+                    .avoidanceSavingsSummary(new GradleBuildCachePerformanceAvoidanceSavingsSummary().ratio(0.5));
+            }
+        };
+        BuildModelCache modelCache = new BuildModelCache(cacheDir, 1024 * 1024, new ObjectMapper());
+        Build build = new Build().id("build-1").buildToolType("gradle").availableAt(0L);
+        List<BuildResult> results = new ArrayList<>();
+
+        // when
+        new BuildCacheBuildProcessor(api, null, null, new Metrics(), results::add).process(new BuildModelContext(build, new BuildModelFetcher(api, modelCache)));
+
+        // then
+        assertEquals(1, attributesRequests.get());
+        assertEquals(1, results.size());
+        assertEquals("my-project", results.get(0).getProjectName());
+        assertEquals("50.00", results.get(0).getCacheHitPercentage().toString());
+        assertEquals("my-project", modelCache.get("build-1", "gradle-attributes", GradleAttributes.class).getRootProjectName());
+    }
+
+    private static List<GradleBuildCachePerformanceTaskExecutionEntry> tasks(AvoidanceOutcomeEnum... avoidanceOutcomes) {
+        return Arrays.stream(avoidanceOutcomes)
+            .map(avoidanceOutcome -> new GradleBuildCachePerformanceTaskExecutionEntry().avoidanceOutcome(avoidanceOutcome))
+            .collect(Collectors.toList());
+    }
+
+}
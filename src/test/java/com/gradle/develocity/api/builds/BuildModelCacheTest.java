@@ -0,0 +1,88 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BuildModelCacheTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("returns cached models across cache instances")
+    void testPutAndGet() {
+        // given
+        new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER).put("build-1", "gradle-attributes", singletonMap("rootProjectName", "my-project"));
+
+        // when
+        BuildModelCache cache = new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER);
+
+        // then
+        assertEquals(singletonMap("rootProjectName", "my-project"), cache.get("build-1", "gradle-attributes", Map.class));
+        assertNull(cache.get("build-1", "gradle-build-cache-performance", Map.class));
+        assertNull(cache.get("build-2", "gradle-attributes", Map.class));
+    }
+
+    @Test
+    @DisplayName("deletes the least recently used models once the maximum size is exceeded")
+    void testEviction() {
+        // given
+        BuildModelCache cache = new BuildModelCache(cacheDir, 1, OBJECT_MAPPER);
+
+        // when
+        cache.put("build-1", "gradle-attributes", singletonMap("rootProjectName", "my-project"));
+
+        // then
+        assertNull(cache.get("build-1", "gradle-attributes", Map.class));
+    }
+
+    @Test
+    @DisplayName("deletes a model that cannot be read and treats it as missing")
+    void testCorruptEntry() throws IOException {
+        // given
+        BuildModelCache cache = new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER);
+        cache.put("build-1", "gradle-attributes", singletonMap("rootProjectName", "my-project"));
+        Path entry = cacheDir.resolve("gradle-attributes").resolve("build-1.json.gz");
+        Files.write(entry, Arrays.copyOf(Files.readAllBytes(entry), 10));
+
+        // when
+        Map<?, ?> model = cache.get("build-1", "gradle-attributes", Map.class);
+
+        // then
+        assertNull(model);
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    @DisplayName("leaves no file behind when a model cannot be written")
+    void testFailedPut() throws IOException {
+        // given
+        BuildModelCache cache = new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER);
+
+        // when
+        cache.put("build-1", "gradle-attributes", new Object());
+
+        // then
+        assertNull(cache.get("build-1", "gradle-attributes", Map.class));
+        try (Stream<Path> files = Files.list(cacheDir.resolve("gradle-attributes"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.DevelocityApi;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.GradleAttributes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class BuildModelContextTest {
+
+    @Test
+    @DisplayName("fetches a model once for all the build processors reading it")
+    void testFetchesModelOnce() {
+        // given
+        AtomicInteger requests = new AtomicInteger();
+        DevelocityApi api = new DevelocityApi() {
+            @Override
+            public GradleAttributes getGradleAttributes(String id, BuildModelQuery buildModelQuery) {
+                requests.incrementAndGet();
+                return new GradleAttributes().rootProjectName("my-project");
+            }
+        };
+        BuildModelContext context = new BuildModelContext(new Build().id("build-1"), new BuildModelFetcher(api, null));
+        List<GradleAttributes> readModels = new ArrayList<>();
+        BuildProcessor reader = buildContext -> {
+            try {
+                readModels.add(buildContext.getGradleAttributes());
+            } catch (ApiException e) {
+                throw new AssertionError(e);
+            }
+        };
+
+        // when
+        new CompositeBuildProcessor(Arrays.asList(reader, reader, reader)).process(context);
+
+        // then
+        assertEquals(1, requests.get());
+        assertEquals(3, readModels.size());
+        readModels.forEach(model -> assertSame(readModels.get(0), model));
+    }
+
+    @Test
+    @DisplayName("reports a failure to fetch a model to every build processor reading it, without fetching it again")
+    void testRemembersFailure() {
+        // given
+        AtomicInteger requests = new AtomicInteger();
+        ApiException failure = new ApiException(404, null, "not found");
+        DevelocityApi api = new DevelocityApi() {
+            @Override
+            public GradleAttributes getGradleAttributes(String id, BuildModelQuery buildModelQuery) throws ApiException {
+                requests.incrementAndGet();
+                throw failure;
+            }
+        };
+        BuildModelContext context = new BuildModelContext(new Build().id("build-1"), new BuildModelFetcher(api, null));
+        List<ApiException> reportedFailures = new ArrayList<>();
+        BuildProcessor reader = buildContext -> {
+            try {
+                buildContext.getGradleAttributes();
+            } catch (ApiException e) {
+                reportedFailures.add(e);
+            }
+        };
+
+        // when
+        new CompositeBuildProcessor(Arrays.asList(reader, reader)).process(context);
+
+        // then
+        assertEquals(1, requests.get());
+        assertEquals(Arrays.asList(failure, failure), reportedFailures);
+    }
+
+}
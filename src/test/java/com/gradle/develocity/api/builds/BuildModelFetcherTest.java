@@ -0,0 +1,73 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.DevelocityApi;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.model.BuildModelName;
+import com.gradle.develocity.api.model.BuildModelQuery;
+import com.gradle.develocity.api.model.BuildModels;
+import com.gradle.develocity.api.model.GradleAttributes;
+import com.gradle.develocity.api.model.GradleAttributesModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class BuildModelFetcherTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("uses a model requested inline instead of fetching it")
+    void testInlineModel() throws Exception {
+        // given
+        CountingApi api = new CountingApi();
+        GradleAttributes inlineModel = new GradleAttributes().rootProjectName("inline-project");
+        Build build = new Build().id("build-1").models(new BuildModels().gradleAttributes(new GradleAttributesModel().model(inlineModel)));
+
+        // when
+        GradleAttributes model = new BuildModelFetcher(api, null).fetch(build, BuildModelName.GRADLE_ATTRIBUTES, GradleAttributes.class);
+
+        // then
+        assertSame(inlineModel, model);
+        assertEquals(0, api.requests.get());
+    }
+
+    @Test
+    @DisplayName("fetches a model missing from the model cache, and reads it from the cache afterwards")
+    void testModelCache() throws Exception {
+        // given
+        CountingApi api = new CountingApi();
+        Build build = new Build().id("build-1");
+
+        // when
+        GradleAttributes fetchedModel = new BuildModelFetcher(api, new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER)).fetch(build, BuildModelName.GRADLE_ATTRIBUTES, GradleAttributes.class);
+        GradleAttributes cachedModel = new BuildModelFetcher(api, new BuildModelCache(cacheDir, 1024 * 1024, OBJECT_MAPPER)).fetch(build, BuildModelName.GRADLE_ATTRIBUTES, GradleAttributes.class);
+
+        // then
+        assertEquals(1, api.requests.get());
+        assertEquals("project-of-build-1", fetchedModel.getRootProjectName());
+        assertEquals("project-of-build-1", cachedModel.getRootProjectName());
+    }
+
+    private static final class CountingApi extends DevelocityApi {
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public GradleAttributes getGradleAttributes(String id, BuildModelQuery buildModelQuery) {
+            requests.incrementAndGet();
+            return new GradleAttributes().rootProjectName("project-of-" + id);
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.gradle.develocity.api.builds;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BuildsCheckpointTest {
+
+    @TempDir
+    Path checkpointDir;
+
+    @Test
+    @DisplayName("reads nothing when no build was recorded yet")
+    void testReadMissingCheckpoint() {
+        // given
+        BuildsCheckpoint checkpoint = new BuildsCheckpoint(checkpointDir.resolve("checkpoint"), Duration.ZERO);
+
+        // expect
+        assertEquals(Optional.empty(), checkpoint.read());
+    }
+
+    @Test
+    @DisplayName("reads the last recorded build once the flush interval has passed")
+    void testRecordAndRead() {
+        // given
+        BuildsCheckpoint checkpoint = new BuildsCheckpoint(checkpointDir.resolve("checkpoint"), Duration.ZERO);
+
+        // when
+        checkpoint.record("build-1");
+        checkpoint.record("build-2");
+
+        // then
+        assertEquals(Optional.of("build-2"), new BuildsCheckpoint(checkpointDir.resolve("checkpoint"), Duration.ZERO).read());
+    }
+
+    @Test
+    @DisplayName("batches recorded builds until the checkpoint is flushed")
+    void testBatchedFlush() {
+        // given
+        BuildsCheckpoint checkpoint = new BuildsCheckpoint(checkpointDir.resolve("checkpoint"), Duration.ofHours(1));
+
+        // when
+        checkpoint.record("build-1");
+
+        // then
+        assertEquals(Optional.empty(), checkpoint.read());
+
+        // when
+        checkpoint.flush();
+
+        // then
+        assertEquals(Optional.of("build-1"), checkpoint.read());
+    }
+
+}
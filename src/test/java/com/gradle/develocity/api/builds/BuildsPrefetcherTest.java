@@ -0,0 +1,39 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.shared.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BuildsPrefetcherTest {
+
+    @Test
+    @DisplayName("rethrows an unchecked failure of the page source once the pages fetched before it are taken")
+    void testUncheckedFailure() throws Exception {
+        // given
+        UncheckedIOException failure = new UncheckedIOException(new IOException("connection reset"));
+        AtomicInteger fetches = new AtomicInteger();
+        BuildsPrefetcher.PageSource pageSource = fromApplicator -> {
+            if (fetches.getAndIncrement() == 0) {
+                return Collections.singletonList(new Build().id("build-1"));
+            }
+            throw failure;
+        };
+
+        try (BuildsPrefetcher prefetcher = new BuildsPrefetcher(pageSource, buildsQuery -> { }, new BuildsQueue(10, BuildsQueue.OverflowPolicy.BLOCK, null, null, new Metrics()))) {
+            // expect
+            assertEquals("build-1", prefetcher.next().get(0).getId());
+            assertSame(failure, assertThrows(UncheckedIOException.class, prefetcher::next));
+        }
+    }
+
+}
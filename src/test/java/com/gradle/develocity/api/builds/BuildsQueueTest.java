@@ -0,0 +1,101 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import com.gradle.develocity.api.model.Build;
+import com.gradle.develocity.api.shared.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BuildsQueueTest {
+
+    @TempDir
+    Path spillDir;
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    @DisplayName("drops the oldest builds once the capacity is exceeded")
+    void testShedOldest() throws Exception {
+        // given
+        BuildsQueue queue = new BuildsQueue(3, BuildsQueue.OverflowPolicy.SHED_OLDEST, spillDir, new ObjectMapper(), metrics);
+
+        // when
+        queue.put(builds("build-1", "build-2"));
+        queue.put(builds("build-3", "build-4"));
+
+        // then
+        assertEquals(3, queue.depth());
+        assertEquals(Arrays.asList("build-2"), ids(queue.take()));
+        assertEquals(Arrays.asList("build-3", "build-4"), ids(queue.take()));
+    }
+
+    @Test
+    @DisplayName("spills pages beyond the capacity to disk and takes them back in order")
+    void testSpill() throws Exception {
+        // given
+        BuildsQueue queue = new BuildsQueue(2, BuildsQueue.OverflowPolicy.SPILL, spillDir, new ObjectMapper(), metrics);
+
+        // when
+        queue.put(builds("build-1", "build-2"));
+        queue.put(builds("build-3"));
+        queue.put(builds("build-4"));
+
+        // then
+        assertEquals(2, queue.depth());
+        assertEquals(2, queue.spilledDepth());
+        assertEquals(Arrays.asList("build-1", "build-2"), ids(queue.take()));
+        assertEquals(Arrays.asList("build-3"), ids(queue.take()));
+        assertEquals(Arrays.asList("build-4"), ids(queue.take()));
+        assertEquals(0, queue.spilledDepth());
+    }
+
+    @Test
+    @DisplayName("reports a failure once the builds put before it have been taken")
+    void testFailAfterPendingBuilds() throws Exception {
+        // given
+        BuildsQueue queue = new BuildsQueue(2, BuildsQueue.OverflowPolicy.BLOCK, spillDir, new ObjectMapper(), metrics);
+        queue.put(builds("build-1"));
+
+        // when
+        queue.fail(new ApiException("unavailable"));
+
+        // then
+        assertEquals(Arrays.asList("build-1"), ids(queue.take()));
+        assertThrows(ApiException.class, queue::take);
+    }
+
+    @Test
+    @DisplayName("fails the queue when a page cannot be spilled")
+    void testSpillFailure() throws Exception {
+        // given
+        BuildsQueue queue = new BuildsQueue(1, BuildsQueue.OverflowPolicy.SPILL, spillDir.resolve("missing"), new ObjectMapper(), metrics);
+        queue.put(builds("build-1"));
+
+        // when
+        assertThrows(UncheckedIOException.class, () -> queue.put(builds("build-2")));
+
+        // then
+        assertEquals(Arrays.asList("build-1"), ids(queue.take()));
+        assertThrows(UncheckedIOException.class, queue::take);
+    }
+
+    private static List<Build> builds(String... ids) {
+        return Arrays.stream(ids).map(id -> new Build().id(id)).collect(Collectors.toList());
+    }
+
+    private static List<String> ids(List<Build> builds) {
+        return builds.stream().map(Build::getId).collect(Collectors.toList());
+    }
+
+}
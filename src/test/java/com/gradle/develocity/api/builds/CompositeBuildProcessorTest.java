@@ -0,0 +1,33 @@
+package com.gradle.develocity.api.builds;
+
+import com.gradle.develocity.api.model.Build;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CompositeBuildProcessorTest {
+
+    @Test
+    @DisplayName("hands each build to every build processor, in order")
+    void testProcessesWithEveryProcessor() {
+        // given
+        List<String> calls = new ArrayList<>();
+        CompositeBuildProcessor processor = new CompositeBuildProcessor(Arrays.asList(
+            context -> calls.add("first " + context.getBuild().getId()),
+            context -> calls.add("second " + context.getBuild().getId())
+        ));
+
+        // when
+        processor.process(new BuildModelContext(new Build().id("build-1"), null));
+        processor.process(new BuildModelContext(new Build().id("build-2"), null));
+
+        // then
+        assertEquals(Arrays.asList("first build-1", "second build-1", "first build-2", "second build-2"), calls);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.gradle.develocity.api.builds;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.gradle.develocity.api.model.GradleBuildCachePerformance;
+import com.gradle.develocity.api.model.GradleBuildCachePerformanceAvoidanceSavingsSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StreamingBuildCachePerformanceReaderTest {
+
+    private static final Set<String> CACHE_HIT_OUTCOMES = new HashSet<>(Arrays.asList("avoided_from_local_cache", "avoided_from_remote_cache"));
+
+    @Test
+    @DisplayName("counts executions and cache hits, and reads the avoidance savings ratio")
+    void testSummarize() throws IOException {
+        // given
+        String json = "{"
+            + "\"id\":\"abc\","
+            + "\"taskExecution\":["
+            + "{\"taskPath\":\":a\",\"avoidanceOutcome\":\"avoided_from_local_cache\",\"nonCacheabilityReason\":{\"type\":\"x\"}},"
+            + "{\"taskPath\":\":b\",\"avoidanceOutcome\":\"executed_cacheable\",\"duration\":12},"
+            + "{\"avoidanceOutcome\":\"avoided_from_remote_cache\"},"
+            + "{\"taskPath\":\":d\",\"avoidanceOutcome\":\"avoided_up_to_date\",\"tags\":[\"a\",\"b\"]}"
+            + "],"
+            + "\"avoidanceSavingsSummary\":{\"total\":1000,\"ratio\":0.456,\"upToDate\":10},"
+            + "\"buildCaches\":{\"local\":{\"isEnabled\":true}}"
+            + "}";
+
+        // when
+        BuildCachePerformanceSummary summary;
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            summary = StreamingBuildCachePerformanceReader.summarize(parser, "taskExecution", CACHE_HIT_OUTCOMES);
+        }
+
+        // then
+        assertEquals(4, summary.getNumExecutions());
+        assertEquals(2, summary.getNumCacheHits());
+        assertEquals(0.456, summary.getAvoidanceSavingsRatio(), 0);
+    }
+
+    @Test
+    @DisplayName("summarizes builds without executions")
+    void testSummarizeWithoutExecutions() throws IOException {
+        // given
+        String json = "{\"goalExecution\":[],\"avoidanceSavingsSummary\":{\"ratio\":0}}";
+
+        // when
+        BuildCachePerformanceSummary summary;
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            summary = StreamingBuildCachePerformanceReader.summarize(parser, "goalExecution", CACHE_HIT_OUTCOMES);
+        }
+
+        // then
+        assertEquals(0, summary.getNumExecutions());
+        assertEquals(0, summary.getNumCacheHits());
+    }
+
+    @Test
+    @DisplayName("reads a null avoidance savings ratio like the generated model")
+    void testSummarizeNullRatio() throws IOException {
+        // given
+        String json = "{\"taskExecution\":[],\"avoidanceSavingsSummary\":{\"total\":0,\"ratio\":null}}";
+        GradleBuildCachePerformance model = new GradleBuildCachePerformance()
+            .avoidanceSavingsSummary(new GradleBuildCachePerformanceAvoidanceSavingsSummary().ratio(null));
+
+        // when
+        BuildCachePerformanceSummary summary;
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            summary = StreamingBuildCachePerformanceReader.summarize(parser, "taskExecution", CACHE_HIT_OUTCOMES);
+        }
+
+        // then
+        assertNull(summary.getAvoidanceSavingsRatio());
+        assertNull(BuildCacheBuildProcessor.computeAvoidanceSavingsRatioPercentage(model));
+    }
+
+}
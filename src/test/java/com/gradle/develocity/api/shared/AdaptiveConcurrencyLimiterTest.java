@@ -0,0 +1,61 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final ApiException THROTTLED = new ApiException(429, Collections.emptyMap(), null);
+    private static final ApiException NOT_FOUND = new ApiException(404, Collections.emptyMap(), null);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, new ObjectMapper());
+
+    @Test
+    @DisplayName("halves the limit when a call is throttled")
+    void testThrottledCallHalvesLimit() {
+        // when
+        assertThrows(ApiException.class, () -> limiter.intercept("getBuilds", () -> {
+            throw THROTTLED;
+        }));
+
+        // then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("keeps the limit when a call fails without being throttled")
+    void testFailedCallKeepsLimit() {
+        // when
+        assertThrows(ApiException.class, () -> limiter.intercept("getBuilds", () -> {
+            throw NOT_FOUND;
+        }));
+
+        // then
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("grows the limit again after successful calls")
+    void testSuccessfulCallsGrowLimit() throws ApiException {
+        // given
+        assertThrows(ApiException.class, () -> limiter.intercept("getBuilds", () -> {
+            throw THROTTLED;
+        }));
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            limiter.intercept("getBuilds", () -> "build");
+        }
+
+        // then
+        assertEquals(5, limiter.getLimit());
+    }
+
+}
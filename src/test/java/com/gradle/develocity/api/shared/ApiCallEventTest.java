@@ -0,0 +1,39 @@
+package com.gradle.develocity.api.shared;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ApiCallEventTest {
+
+    @Test
+    @DisplayName("separates the build ID from the endpoint of a build model request")
+    void testSetPathOfBuildModelRequest() {
+        // given
+        ApiCallEvent event = new ApiCallEvent();
+
+        // when
+        event.setPath("/api/builds/abc123/gradle-attributes?availabilityWaitTimeoutSecs=5");
+
+        // then
+        assertEquals("/api/builds/{id}/gradle-attributes", event.endpoint);
+        assertEquals("abc123", event.buildId);
+    }
+
+    @Test
+    @DisplayName("keeps the endpoint of a request without build ID")
+    void testSetPathOfBuildsRequest() {
+        // given
+        ApiCallEvent event = new ApiCallEvent();
+
+        // when
+        event.setPath("/api/builds?fromInstant=0&reverse=false");
+
+        // then
+        assertEquals("/api/builds", event.endpoint);
+        assertNull(event.buildId);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AsyncApiCallInterceptorTest {
+
+    private static final ApiException SERVER_ERROR = new ApiException(500, Collections.emptyMap(), null);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<CompletableFuture<String>> startedCalls = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("lets a single trial call through after the pause, and the waiting calls once it succeeds")
+    void testSingleTrialCallAfterPause() throws InterruptedException {
+        // given
+        AsyncApiCallInterceptor interceptor = interceptor(4, Duration.ofMillis(200));
+        interceptor.intercept("getBuild", () -> failed(SERVER_ERROR));
+        for (int i = 0; i < 3; i++) {
+            interceptor.intercept("getBuild", this::startCall);
+        }
+        assertEquals(0, startedCalls.size());
+
+        // when
+        Thread.sleep(400);
+        int startedTrialCalls = startedCalls.size();
+        startedCalls.get(0).complete("build");
+
+        // then
+        assertEquals(1, startedTrialCalls);
+        assertEquals(3, startedCalls.size());
+    }
+
+    @Test
+    @DisplayName("pauses calls again when the trial call fails")
+    void testFailedTrialCallPausesAgain() throws InterruptedException {
+        // given
+        AsyncApiCallInterceptor interceptor = interceptor(4, Duration.ofMillis(200));
+        interceptor.intercept("getBuild", () -> failed(SERVER_ERROR));
+        interceptor.intercept("getBuild", this::startCall);
+        interceptor.intercept("getBuild", this::startCall);
+        Thread.sleep(400);
+
+        // when
+        startedCalls.get(0).completeExceptionally(SERVER_ERROR);
+
+        // then
+        assertEquals(1, startedCalls.size());
+        Thread.sleep(400);
+        assertEquals(2, startedCalls.size());
+    }
+
+    @Test
+    @DisplayName("does not start a waiting call when the call it waited for opens the circuit")
+    void testFailureRecordedBeforePermitIsReleased() {
+        // given
+        AsyncApiCallInterceptor interceptor = interceptor(1, Duration.ofSeconds(10));
+        interceptor.intercept("getBuild", this::startCall);
+        interceptor.intercept("getBuild", this::startCall);
+
+        // when
+        startedCalls.get(0).completeExceptionally(SERVER_ERROR);
+
+        // then
+        assertEquals(1, startedCalls.size());
+    }
+
+    private AsyncApiCallInterceptor interceptor(int maxLimit, Duration pauseDuration) {
+        return new AsyncApiCallInterceptor(maxLimit, 0, Duration.ZERO, Duration.ZERO, 1, pauseDuration, new ObjectMapper(), new Metrics(), failure -> (ApiException) failure, scheduler);
+    }
+
+    private CompletableFuture<String> startCall() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        startedCalls.add(call);
+        return call;
+    }
+
+    private static CompletableFuture<String> failed(ApiException e) {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        call.completeExceptionally(e);
+        return call;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.gradle.develocity.api.shared;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircuitBreakerStateTest {
+
+    private final CircuitBreakerState state = new CircuitBreakerState(2, Duration.ZERO);
+
+    @Test
+    @DisplayName("opens once the threshold of consecutive failures is reached")
+    void testOpensAfterConsecutiveFailures() {
+        // given
+        CircuitBreakerState longOpenState = new CircuitBreakerState(2, Duration.ofSeconds(10));
+
+        // when
+        longOpenState.onFailure();
+        boolean enteredAfterOneFailure = longOpenState.tryEnter();
+        longOpenState.onFailure();
+
+        // then
+        assertTrue(enteredAfterOneFailure);
+        assertFalse(longOpenState.tryEnter());
+        assertTrue(longOpenState.openMillis() > 0);
+    }
+
+    @Test
+    @DisplayName("lets a single trial call through once the circuit has been open long enough")
+    void testSingleTrialCall() {
+        // given
+        state.onFailure();
+        state.onFailure();
+
+        // when
+        boolean trialCall = state.tryEnter();
+        boolean secondCall = state.tryEnter();
+
+        // then
+        assertTrue(trialCall);
+        assertFalse(secondCall);
+    }
+
+    @Test
+    @DisplayName("closes when the trial call succeeds")
+    void testSuccessfulTrialCallCloses() {
+        // given
+        state.onFailure();
+        state.onFailure();
+        state.tryEnter();
+
+        // when
+        state.onSuccess();
+
+        // then
+        assertTrue(state.tryEnter());
+        assertTrue(state.tryEnter());
+        assertEquals(0, state.openMillis());
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CircuitBreakerTest {
+
+    private static final ApiException SERVER_ERROR = new ApiException(500, Collections.emptyMap(), null);
+
+    @Test
+    @DisplayName("lets a single trial call through after the pause, and the waiting calls once it succeeds")
+    void testSingleTrialCallAfterPause() throws InterruptedException {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMillis(200), new ObjectMapper());
+        assertThrows(ApiException.class, () -> circuitBreaker.intercept("getBuild", () -> {
+            throw SERVER_ERROR;
+        }));
+        AtomicInteger startedCalls = new AtomicInteger();
+        CountDownLatch trialCallMayFinish = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    circuitBreaker.intercept("getBuild", () -> {
+                        startedCalls.incrementAndGet();
+                        try {
+                            trialCallMayFinish.await();
+                        } catch (InterruptedException e) {
+                            throw new ApiException(e);
+                        }
+                        return "build";
+                    });
+                } catch (ApiException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+
+        // when
+        Thread.sleep(400);
+        int startedTrialCalls = startedCalls.get();
+        trialCallMayFinish.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        // then
+        assertEquals(1, startedTrialCalls);
+        assertEquals(3, startedCalls.get());
+    }
+
+}
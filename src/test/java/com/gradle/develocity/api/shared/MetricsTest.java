@@ -0,0 +1,69 @@
+package com.gradle.develocity.api.shared;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MetricsTest {
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    @DisplayName("writes counters with their labels in the Prometheus text format")
+    void testWritesCounters() throws IOException {
+        // given
+        metrics.counter("api_errors_total", "API calls that failed", "operation", "getBuilds", "code", "503").increment();
+        metrics.counter("api_errors_total", "API calls that failed", "operation", "getBuilds", "code", "503").increment();
+        metrics.counter("api_errors_total", "API calls that failed", "operation", "getTestCases", "code", "0").increment();
+
+        // expect
+        assertEquals(
+            "# HELP api_errors_total API calls that failed\n" +
+                "# TYPE api_errors_total counter\n" +
+                "api_errors_total{operation=\"getBuilds\",code=\"503\"} 2\n" +
+                "api_errors_total{operation=\"getTestCases\",code=\"0\"} 1\n",
+            write()
+        );
+    }
+
+    @Test
+    @DisplayName("writes histograms with cumulative buckets in the Prometheus text format")
+    void testWritesHistograms() throws IOException {
+        // given
+        Metrics.Histogram histogram = metrics.histogram("call_seconds", "Latency of calls", new double[]{0.1, 1}, "operation", "getBuilds");
+        histogram.observe(0.05);
+        histogram.observe(0.5);
+        histogram.observe(2);
+
+        // expect
+        assertEquals(
+            "# HELP call_seconds Latency of calls\n" +
+                "# TYPE call_seconds histogram\n" +
+                "call_seconds_bucket{operation=\"getBuilds\",le=\"0.1\"} 1\n" +
+                "call_seconds_bucket{operation=\"getBuilds\",le=\"1\"} 2\n" +
+                "call_seconds_bucket{operation=\"getBuilds\",le=\"+Inf\"} 3\n" +
+                "call_seconds_sum{operation=\"getBuilds\"} 2.55\n" +
+                "call_seconds_count{operation=\"getBuilds\"} 3\n",
+            write()
+        );
+    }
+
+    @Test
+    @DisplayName("returns the same series for the same name and labels")
+    void testReturnsSameSeries() {
+        // expect
+        assertSame(metrics.counter("builds_total", "Builds"), metrics.counter("builds_total", "Builds"));
+    }
+
+    private String write() throws IOException {
+        StringWriter writer = new StringWriter();
+        metrics.writePrometheus(writer);
+        return writer.toString();
+    }
+
+}
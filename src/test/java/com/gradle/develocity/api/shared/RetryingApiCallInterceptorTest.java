@@ -0,0 +1,111 @@
+package com.gradle.develocity.api.shared;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gradle.develocity.api.client.ApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryingApiCallInterceptorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private final ApiCallInterceptor interceptor = new RetryingApiCallInterceptor(3, Duration.ZERO, Duration.ZERO, OBJECT_MAPPER);
+
+    @Test
+    @DisplayName("retries a call failing with a transient error until it succeeds")
+    void testRetriesTransientError() throws ApiException {
+        // when
+        String result = interceptor.intercept("getBuilds", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ApiException(502, Collections.emptyMap(), null);
+            }
+            return "builds";
+        });
+
+        // then
+        assertEquals("builds", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    @DisplayName("gives up after the maximum number of retries")
+    void testGivesUpAfterMaxRetries() {
+        // when
+        ApiException e = assertThrows(ApiException.class, () -> interceptor.intercept("getBuilds", () -> {
+            attempts.incrementAndGet();
+            throw new ApiException(429, Collections.emptyMap(), null);
+        }));
+
+        // then
+        assertEquals(429, e.getCode());
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    @DisplayName("does not retry a call failing permanently")
+    void testDoesNotRetryPermanentError() {
+        // when
+        assertThrows(ApiException.class, () -> interceptor.intercept("getBuilds", () -> {
+            attempts.incrementAndGet();
+            throw new ApiException(404, Collections.emptyMap(), null);
+        }));
+
+        // then
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("waits for the open circuit breaker instead of failing the call")
+    void testWaitsWhileCircuitIsOpen() throws ApiException {
+        // given
+        ApiCallInterceptor retryingCircuitBreaker = ApiCallInterceptor.chain(Arrays.asList(
+            interceptor,
+            new CircuitBreaker(2, Duration.ofMillis(200), OBJECT_MAPPER)
+        ));
+        long startMillis = System.currentTimeMillis();
+
+        // when
+        String result = retryingCircuitBreaker.intercept("getBuilds", () -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new ApiException(500, Collections.emptyMap(), null);
+            }
+            return "builds";
+        });
+
+        // then
+        assertEquals("builds", result);
+        assertEquals(3, attempts.get());
+        assertTrue(System.currentTimeMillis() - startMillis >= 200);
+    }
+
+    @Test
+    @DisplayName("does not leave the circuit breaker half-open when the trial call fails unexpectedly")
+    void testTrialCallFailingUnexpectedly() throws ApiException {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ZERO, OBJECT_MAPPER);
+        assertThrows(ApiException.class, () -> circuitBreaker.intercept("getBuilds", () -> {
+            throw new ApiException(500, Collections.emptyMap(), null);
+        }));
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.intercept("getBuilds", () -> {
+            throw new IllegalStateException("unexpected");
+        }));
+
+        // when
+        String result = circuitBreaker.intercept("getBuilds", () -> "builds");
+
+        // then
+        assertEquals("builds", result);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.gradle.develocity.api.tests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DailyBaselineStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 10);
+
+    @TempDir
+    Path baselineDir;
+
+    @Test
+    @DisplayName("reads the containers written for a day")
+    void testWriteAndRead() {
+        // given
+        Set<String> containerNames = new HashSet<>(Arrays.asList("org.example.b.SecondTest", "org.example.a.FirstTest", "org.example.a.FirstTestCase", "Standalone"));
+
+        // when
+        new DailyBaselineStore(baselineDir).write(DAY, containerNames);
+
+        // then
+        assertEquals(containerNames, new DailyBaselineStore(baselineDir).read(DAY).get());
+        assertFalse(new DailyBaselineStore(baselineDir).read(DAY.plusDays(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("deletes the days before the oldest day")
+    void testDeleteBefore() {
+        // given
+        DailyBaselineStore store = new DailyBaselineStore(baselineDir);
+        store.write(DAY.minusDays(1), new HashSet<>(Arrays.asList("org.example.OldTest")));
+        store.write(DAY, new HashSet<>(Arrays.asList("org.example.NewTest")));
+
+        // when
+        store.deleteBefore(DAY);
+
+        // then
+        assertFalse(store.read(DAY.minusDays(1)).isPresent());
+        assertEquals(new HashSet<>(Arrays.asList("org.example.NewTest")), store.read(DAY).get());
+    }
+
+    @Test
+    @DisplayName("deletes the days stored by earlier versions before the oldest day")
+    void testDeleteBeforeLegacyFiles() throws IOException {
+        // given
+        Path oldFile = Files.createFile(baselineDir.resolve("unstable-containers-" + DAY.minusDays(1) + ".txt.gz"));
+        Path newFile = Files.createFile(baselineDir.resolve("unstable-containers-" + DAY + ".txt.gz"));
+
+        // when
+        new DailyBaselineStore(baselineDir).deleteBefore(DAY);
+
+        // then
+        assertFalse(Files.exists(oldFile));
+        assertTrue(Files.exists(newFile));
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.gradle.develocity.api.tests;
 
 import com.gradle.develocity.api.model.*;
+import com.gradle.develocity.api.shared.Interval;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -98,4 +98,30 @@ public class StandardOutputReporterTest {
         );
     }
 
+    @Test
+    @DisplayName("reports the container of test cases that could not be determined")
+    void testReportFailedCases() {
+        // given
+        TestContainerWithCases unstableContainer = TestContainerWithCases.withFailedCases(SampleTestData.UNSTABLE_CONTAINER, "HTTP 503");
+        StandardOutputReporter reporter = new StandardOutputReporter("https://my.ge.com", NOW, singletonList(unstableContainer));
+
+        // when
+        reporter.report();
+
+        // then
+        assertEquals(
+            "\norg.example.TestContainer (🔴 failed: 1, 🟡 flaky: 2, 💯 total: 5)\n" +
+            "\tView in Tests dashboard: https://my.ge.com/scans/tests?search.startTimeMax=1701070719000&search.startTimeMin=1700465919000&tests.container=org.example.TestContainer\n" +
+            "\tUnstable test cases:\n" +
+            "\t\tCould not be determined: HTTP 503\n" +
+            "\tWork units:\n" +
+            "\t\tproject > :test\n" +
+            "\tExample Build Scans:\n" +
+            "\t\thttps://my.ge.com/s/123\n" +
+            "\t\thttps://my.ge.com/s/456\n" +
+            "\t\thttps://my.ge.com/s/789\n",
+            outputStream.toString()
+        );
+    }
+
 }
@@ -0,0 +1,58 @@
+package com.gradle.develocity.api.tests;
+
+import com.gradle.develocity.api.model.TestOrContainer;
+import com.gradle.develocity.api.model.TestOutcomeDistribution;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UnstableTestRankingTest {
+
+    private final List<TestOrContainer> containers = containers(500);
+
+    @Test
+    @DisplayName("ranks all tests in the ranking order")
+    void testRankAll() {
+        // when
+        List<TestOrContainer> ranked = UnstableTestRanking.top(containers, 0);
+
+        // then
+        assertEquals(sorted(containers), ranked);
+    }
+
+    @Test
+    @DisplayName("selects the most unstable tests in the ranking order")
+    void testRankTop() {
+        // when
+        List<TestOrContainer> ranked = UnstableTestRanking.top(containers, 10);
+
+        // then
+        assertEquals(sorted(containers).subList(0, 10), ranked);
+    }
+
+    private static List<TestOrContainer> sorted(List<TestOrContainer> containers) {
+        List<TestOrContainer> sorted = new ArrayList<>(containers);
+        sorted.sort(UnstableTestRanking.ORDER);
+        return sorted;
+    }
+
+    private static List<TestOrContainer> containers(int count) {
+        Random random = new Random(42);
+        List<TestOrContainer> containers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int total = 1 + random.nextInt(20);
+            int failed = random.nextInt(total + 1);
+            int flaky = random.nextInt(total - failed + 1);
+            containers.add(new TestOrContainer()
+                .name("org.example.SomeTest" + i)
+                .outcomeDistribution(new TestOutcomeDistribution().failed(failed).flaky(flaky).total(total)));
+        }
+        return containers;
+    }
+
+}